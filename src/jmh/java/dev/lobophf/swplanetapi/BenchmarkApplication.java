@@ -0,0 +1,51 @@
+package dev.lobophf.swplanetapi;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import dev.lobophf.swplanetapi.domain.Planet;
+import dev.lobophf.swplanetapi.domain.PlanetService;
+
+public class BenchmarkApplication {
+  public static final String[] TERRAINS = { "desert", "grasslands", "mountains", "jungle", "rainforests", "ocean",
+      "tundra", "swamp", "forests", "cityscape", "lakes", "volcanoes" };
+  public static final String[] CLIMATES = { "arid", "temperate", "tropical", "frozen", "murky", "humid" };
+
+  private BenchmarkApplication() {
+  }
+
+  public static ConfigurableApplicationContext start(String... args) {
+    List<String> arguments = new ArrayList<>(List.of(
+        "--spring.datasource.url=jdbc:h2:mem:" + UUID.randomUUID(),
+        "--logging.level.root=WARN"));
+    arguments.addAll(List.of(args));
+    return new SpringApplicationBuilder(SwPlanetApiApplication.class)
+        .web(WebApplicationType.NONE)
+        .run(arguments.toArray(new String[0]));
+  }
+
+  public static void seed(ConfigurableApplicationContext context, int size) {
+    PlanetService planetService = context.getBean(PlanetService.class);
+    List<Planet> chunk = new ArrayList<>();
+    for (int i = 0; i < size; i++) {
+      chunk.add(planet(i));
+      if (chunk.size() == 1000) {
+        planetService.createAll(chunk);
+        chunk = new ArrayList<>();
+      }
+    }
+    if (!chunk.isEmpty()) {
+      planetService.createAll(chunk);
+    }
+  }
+
+  public static Planet planet(int i) {
+    String terrain = TERRAINS[i % TERRAINS.length] + ", " + TERRAINS[(i / TERRAINS.length) % TERRAINS.length];
+    return new Planet("Planet " + i, CLIMATES[i % CLIMATES.length], terrain);
+  }
+}
@@ -0,0 +1,51 @@
+package dev.lobophf.swplanetapi.domain;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PlanetBenchmark {
+  private final Planet planet = new Planet(1L, "Alderaan", "temperate", "grasslands, mountains");
+  private final Planet samePlanet = new Planet(1L, "Alderaan", "temperate", "grasslands, mountains");
+  private final Planet otherPlanet = new Planet(1L, "Alderaan", "temperate", "grasslands, lakes");
+  private final Planet filter = new Planet("temperate", "mountains");
+
+  @Benchmark
+  public boolean equalsSame() {
+    return planet.equals(samePlanet);
+  }
+
+  @Benchmark
+  public boolean equalsDifferent() {
+    return planet.equals(otherPlanet);
+  }
+
+  @Benchmark
+  public int hashCodeOf() {
+    return planet.hashCode();
+  }
+
+  @Benchmark
+  public Object makeQuery() {
+    return QueryBuilder.makeQuery(filter);
+  }
+
+  @Benchmark
+  public Object makeSpecification() {
+    return QueryBuilder.makeSpecification(filter);
+  }
+}
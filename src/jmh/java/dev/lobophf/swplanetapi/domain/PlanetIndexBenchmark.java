@@ -0,0 +1,69 @@
+package dev.lobophf.swplanetapi.domain;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import dev.lobophf.swplanetapi.BenchmarkApplication;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PlanetIndexBenchmark {
+  @Param({ "1000", "10000", "100000" })
+  public int size;
+
+  @Param({ "mountains" })
+  public String terrain;
+
+  @Param({ "temperate" })
+  public String climate;
+
+  private ConfigurableApplicationContext context;
+  private PlanetRepository planetRepository;
+  private PlanetIndex planetIndex;
+
+  @Setup
+  public void setUp() {
+    context = BenchmarkApplication.start("--planets.index.enabled=true");
+    BenchmarkApplication.seed(context, size);
+    planetRepository = context.getBean(PlanetRepository.class);
+    planetIndex = context.getBean(PlanetIndex.class);
+  }
+
+  @TearDown
+  public void tearDown() {
+    context.close();
+  }
+
+  @Benchmark
+  public List<Planet> exampleQuery() {
+    return planetRepository.findAll(QueryBuilder.makeQuery(new Planet(climate, terrain)));
+  }
+
+  @Benchmark
+  public List<Planet> tokenQuery() {
+    return planetRepository.findAll(QueryBuilder.makeTokenSpecification(terrain, climate));
+  }
+
+  @Benchmark
+  public List<Planet> bitmapIndex() {
+    return planetIndex.find(terrain, climate);
+  }
+}
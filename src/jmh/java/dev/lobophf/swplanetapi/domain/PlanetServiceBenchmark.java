@@ -0,0 +1,78 @@
+package dev.lobophf.swplanetapi.domain;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import dev.lobophf.swplanetapi.BenchmarkApplication;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PlanetServiceBenchmark {
+  @Param({ "1000", "10000", "100000" })
+  public int size;
+
+  @Param({ "true", "false" })
+  public boolean cache;
+
+  private ConfigurableApplicationContext context;
+  private PlanetService planetService;
+  private long firstId;
+
+  @Setup
+  public void setUp() {
+    context = BenchmarkApplication.start("--planets.cache.enabled=" + cache);
+    BenchmarkApplication.seed(context, size);
+    planetService = context.getBean(PlanetService.class);
+    firstId = planetService.getByName(BenchmarkApplication.planet(0).getName()).orElseThrow().getId();
+  }
+
+  @TearDown
+  public void tearDown() {
+    context.close();
+  }
+
+  @Benchmark
+  public Optional<Planet> get() {
+    return planetService.get(firstId + ThreadLocalRandom.current().nextInt(size));
+  }
+
+  @Benchmark
+  public Optional<Planet> getByName() {
+    return planetService.getByName(BenchmarkApplication.planet(ThreadLocalRandom.current().nextInt(size)).getName());
+  }
+
+  @Benchmark
+  public List<Planet> list() {
+    return planetService.list("mountains", "temperate");
+  }
+
+  @Benchmark
+  public List<Planet> listExact() {
+    return planetService.listExact("mountains, desert", "temperate");
+  }
+
+  @Benchmark
+  public List<Planet> listPage() {
+    return planetService.list(null, null, false, null, 100);
+  }
+}
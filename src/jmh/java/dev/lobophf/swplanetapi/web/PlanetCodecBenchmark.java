@@ -0,0 +1,80 @@
+package dev.lobophf.swplanetapi.web;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+
+import dev.lobophf.swplanetapi.BenchmarkApplication;
+import dev.lobophf.swplanetapi.domain.Planet;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PlanetCodecBenchmark {
+  @Param({ "10", "100", "1000" })
+  public int size;
+
+  @Param({ "json", "cbor" })
+  public String format;
+
+  private ObjectWriter writer;
+  private ObjectReader reader;
+  private List<Planet> planets;
+  private byte[] payload;
+
+  @Setup
+  public void setUp() throws JsonProcessingException {
+    // Same defaults as the ObjectMapper Spring Boot hands to the controllers.
+    Jackson2ObjectMapperBuilder builder = Jackson2ObjectMapperBuilder.json();
+    if ("cbor".equals(format)) {
+      builder.factory(new CBORFactory());
+    }
+    ObjectMapper objectMapper = builder.build();
+    writer = objectMapper.writerFor(new TypeReference<List<Planet>>() {
+    });
+    reader = objectMapper.readerFor(new TypeReference<List<Planet>>() {
+    });
+
+    planets = new ArrayList<>(size);
+    for (int i = 0; i < size; i++) {
+      Planet planet = BenchmarkApplication.planet(i);
+      planets.add(new Planet((long) i + 1, planet.getName(), planet.getClimate(), planet.getTerrain(), 0L));
+    }
+    payload = writer.writeValueAsBytes(planets);
+    System.out.printf("%s payload for %d planets: %d bytes%n", format, size, payload.length);
+  }
+
+  @Benchmark
+  public byte[] serialize() throws JsonProcessingException {
+    return writer.writeValueAsBytes(planets);
+  }
+
+  @Benchmark
+  public List<Planet> deserialize() throws IOException {
+    return reader.readValue(payload);
+  }
+}
@@ -2,8 +2,10 @@ package dev.lobophf.swplanetapi;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
 public class SwPlanetApiApplication {
 
 	public static void main(String[] args) {
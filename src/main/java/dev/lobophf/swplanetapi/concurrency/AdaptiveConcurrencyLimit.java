@@ -0,0 +1,75 @@
+package dev.lobophf.swplanetapi.concurrency;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Vegas-style limit on concurrent calls. Each completed call compares its
+// latency with the lowest one seen: while calls take about as long as that,
+// the limit grows; when they queue up behind each other it shrinks, and it is
+// cut multiplicatively when a call fails with a timeout or overload error.
+// The lowest latency is re-learned every PROBE_INTERVAL samples, so a database
+// that became slower for good is not mistaken for one that is overloaded.
+public class AdaptiveConcurrencyLimit {
+  static final int PROBE_INTERVAL = 1000;
+  private static final double BACKOFF_RATIO = 0.9;
+
+  private final int minLimit;
+  private final int maxLimit;
+  private final AtomicInteger inFlight = new AtomicInteger();
+  private volatile double limit;
+  private long minRttNanos = Long.MAX_VALUE;
+  private int samples;
+
+  public AdaptiveConcurrencyLimit(int initialLimit, int minLimit, int maxLimit) {
+    this.minLimit = minLimit;
+    this.maxLimit = maxLimit;
+    this.limit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+  }
+
+  public boolean tryAcquire() {
+    while (true) {
+      int current = inFlight.get();
+      if (current >= getLimit()) {
+        return false;
+      }
+      if (inFlight.compareAndSet(current, current + 1)) {
+        return true;
+      }
+    }
+  }
+
+  public void release(long rttNanos, boolean overloaded) {
+    int current = inFlight.getAndDecrement();
+    update(Math.max(rttNanos, 1), current, overloaded);
+  }
+
+  public int getLimit() {
+    return (int) limit;
+  }
+
+  public int getInFlight() {
+    return inFlight.get();
+  }
+
+  private synchronized void update(long rttNanos, int inFlightAtRelease, boolean overloaded) {
+    if (++samples % PROBE_INTERVAL == 0) {
+      minRttNanos = rttNanos;
+    }
+    minRttNanos = Math.min(minRttNanos, rttNanos);
+
+    double current = limit;
+    double step = Math.max(1, Math.log10(current));
+    double queued = current * (1 - (double) minRttNanos / rttNanos);
+    double next;
+    if (overloaded) {
+      next = current * BACKOFF_RATIO;
+    } else if (queued > 6 * step) {
+      next = current - step;
+    } else if (queued < 3 * step && inFlightAtRelease * 2 >= current) {
+      // Only grow while the limit is actually being used.
+      next = current + step;
+    } else {
+      return;
+    }
+    limit = Math.max(minLimit, Math.min(maxLimit, next));
+  }
+}
@@ -0,0 +1,37 @@
+package dev.lobophf.swplanetapi.concurrency;
+
+import java.time.Duration;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@Configuration
+@Profile("!reactive")
+@ConditionalOnProperty(name = "planets.concurrency-limit.enabled", havingValue = "true", matchIfMissing = true)
+public class ConcurrencyLimitConfiguration implements WebMvcConfigurer {
+  private final ConcurrencyLimitInterceptor interceptor;
+
+  public ConcurrencyLimitConfiguration(ObjectProvider<MeterRegistry> meterRegistry,
+      @Value("${planets.concurrency-limit.read.initial:20}") int initialReadLimit,
+      @Value("${planets.concurrency-limit.read.max:200}") int maxReadLimit,
+      @Value("${planets.concurrency-limit.write.initial:10}") int initialWriteLimit,
+      @Value("${planets.concurrency-limit.write.max:50}") int maxWriteLimit,
+      @Value("${planets.concurrency-limit.retry-after:1s}") Duration retryAfter) {
+    // Web slice tests run without the metrics auto-configuration.
+    this.interceptor = new ConcurrencyLimitInterceptor(meterRegistry.getIfAvailable(SimpleMeterRegistry::new),
+        initialReadLimit, maxReadLimit, initialWriteLimit, maxWriteLimit, retryAfter);
+  }
+
+  @Override
+  public void addInterceptors(InterceptorRegistry registry) {
+    registry.addInterceptor(interceptor).addPathPatterns("/planets", "/planets/**");
+  }
+}
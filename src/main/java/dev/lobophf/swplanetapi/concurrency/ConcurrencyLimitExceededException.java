@@ -0,0 +1,16 @@
+package dev.lobophf.swplanetapi.concurrency;
+
+import java.time.Duration;
+
+public class ConcurrencyLimitExceededException extends RuntimeException {
+  private final Duration retryAfter;
+
+  public ConcurrencyLimitExceededException(String kind, int limit, Duration retryAfter) {
+    super(String.format("Too many concurrent %s requests (limit %d)", kind, limit));
+    this.retryAfter = retryAfter;
+  }
+
+  public Duration getRetryAfter() {
+    return retryAfter;
+  }
+}
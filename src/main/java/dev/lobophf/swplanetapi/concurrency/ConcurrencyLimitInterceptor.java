@@ -0,0 +1,98 @@
+package dev.lobophf.swplanetapi.concurrency;
+
+import java.time.Duration;
+
+import javax.servlet.DispatcherType;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.http.HttpMethod;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.DispatcherServlet;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+// Sheds load before it queues on the connection pool. Every API request takes
+// a permit, GET and HEAD from the read limit and the rest from the write limit,
+// before the handler starts a transaction, so a rejected request never borrows
+// a connection. Only requests are limited: work the application does on its
+// own, like import chunks, is not turned away halfway through. Handlers marked
+// ConcurrencyLimitExempt are left out; they hold the request for the whole
+// transfer, which says nothing about query latency.
+public class ConcurrencyLimitInterceptor implements HandlerInterceptor {
+  private static final String PERMIT_ATTRIBUTE = ConcurrencyLimitInterceptor.class.getName() + ".permit";
+
+  private final AdaptiveConcurrencyLimit reads;
+  private final AdaptiveConcurrencyLimit writes;
+  private final Counter readRejections;
+  private final Counter writeRejections;
+  private final Duration retryAfter;
+
+  public ConcurrencyLimitInterceptor(MeterRegistry meterRegistry, int initialReadLimit, int maxReadLimit,
+      int initialWriteLimit, int maxWriteLimit, Duration retryAfter) {
+    this.reads = new AdaptiveConcurrencyLimit(initialReadLimit, 1, maxReadLimit);
+    this.writes = new AdaptiveConcurrencyLimit(initialWriteLimit, 1, maxWriteLimit);
+    this.readRejections = register(meterRegistry, "read", reads);
+    this.writeRejections = register(meterRegistry, "write", writes);
+    this.retryAfter = retryAfter;
+  }
+
+  @Override
+  public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+    // An async or error dispatch belongs to a request that was admitted already.
+    if (request.getDispatcherType() != DispatcherType.REQUEST || !(handler instanceof HandlerMethod)
+        || ((HandlerMethod) handler).hasMethodAnnotation(ConcurrencyLimitExempt.class)) {
+      return true;
+    }
+    boolean read = HttpMethod.GET.matches(request.getMethod()) || HttpMethod.HEAD.matches(request.getMethod());
+    AdaptiveConcurrencyLimit limit = read ? reads : writes;
+    if (!limit.tryAcquire()) {
+      (read ? readRejections : writeRejections).increment();
+      throw new ConcurrencyLimitExceededException(read ? "read" : "write", limit.getLimit(), retryAfter);
+    }
+    request.setAttribute(PERMIT_ATTRIBUTE, new Permit(limit, System.nanoTime()));
+    return true;
+  }
+
+  @Override
+  public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+      Exception ex) {
+    Permit permit = (Permit) request.getAttribute(PERMIT_ATTRIBUTE);
+    if (permit == null) {
+      return;
+    }
+    request.removeAttribute(PERMIT_ATTRIBUTE);
+    // Exceptions turned into a response by an exception handler are not passed in.
+    Object failure = ex != null ? ex : request.getAttribute(DispatcherServlet.EXCEPTION_ATTRIBUTE);
+    boolean overloaded = failure instanceof TransientDataAccessException
+        || failure instanceof CannotCreateTransactionException;
+    permit.limit.release(System.nanoTime() - permit.start, overloaded);
+  }
+
+  private static Counter register(MeterRegistry meterRegistry, String kind, AdaptiveConcurrencyLimit limit) {
+    Gauge.builder("planets.concurrency.limit", limit, AdaptiveConcurrencyLimit::getLimit)
+        .tag("kind", kind)
+        .register(meterRegistry);
+    Gauge.builder("planets.concurrency.in.flight", limit, AdaptiveConcurrencyLimit::getInFlight)
+        .tag("kind", kind)
+        .register(meterRegistry);
+    return Counter.builder("planets.concurrency.rejected")
+        .tag("kind", kind)
+        .register(meterRegistry);
+  }
+
+  private static class Permit {
+    private final AdaptiveConcurrencyLimit limit;
+    private final long start;
+
+    Permit(AdaptiveConcurrencyLimit limit, long start) {
+      this.limit = limit;
+      this.start = start;
+    }
+  }
+}
@@ -0,0 +1,37 @@
+package dev.lobophf.swplanetapi.datasource;
+
+import java.io.IOException;
+import java.util.Set;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.web.filter.OncePerRequestFilter;
+
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+  static final String CLIENT_HEADER = "X-Client-Id";
+  private static final Set<String> WRITE_METHODS = Set.of("POST", "PUT", "PATCH", "DELETE");
+
+  private final ReadYourWritesTracker tracker;
+
+  public ReadYourWritesFilter(ReadYourWritesTracker tracker) {
+    this.tracker = tracker;
+  }
+
+  @Override
+  protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+      throws ServletException, IOException {
+    String client = request.getHeader(CLIENT_HEADER);
+    tracker.bind(client == null ? request.getRemoteAddr() : client);
+    try {
+      filterChain.doFilter(request, response);
+      if (WRITE_METHODS.contains(request.getMethod()) && response.getStatus() < 400) {
+        tracker.recordWrite();
+      }
+    } finally {
+      tracker.clear();
+    }
+  }
+}
@@ -0,0 +1,55 @@
+package dev.lobophf.swplanetapi.datasource;
+
+import java.time.Duration;
+
+import org.springframework.core.task.TaskDecorator;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+// Remembers which clients wrote within the window, so their reads can be sent
+// to the primary until the replicas have caught up. As a TaskDecorator it is
+// applied to Spring Boot's task executor, which runs streaming response
+// bodies, so those keep the client of the request that started them.
+public class ReadYourWritesTracker implements TaskDecorator {
+  private final ThreadLocal<String> currentClient = new ThreadLocal<>();
+  private final Cache<String, Boolean> recentWriters;
+
+  public ReadYourWritesTracker(Duration window) {
+    this.recentWriters = window.isZero() ? null
+        : Caffeine.newBuilder().expireAfterWrite(window).build();
+  }
+
+  public void bind(String client) {
+    currentClient.set(client);
+  }
+
+  public void clear() {
+    currentClient.remove();
+  }
+
+  public void recordWrite() {
+    String client = currentClient.get();
+    if (recentWriters != null && client != null) {
+      recentWriters.put(client, Boolean.TRUE);
+    }
+  }
+
+  public boolean mustReadFromPrimary() {
+    String client = currentClient.get();
+    return recentWriters != null && client != null && recentWriters.getIfPresent(client) != null;
+  }
+
+  @Override
+  public Runnable decorate(Runnable task) {
+    String client = currentClient.get();
+    return () -> {
+      bind(client);
+      try {
+        task.run();
+      } finally {
+        clear();
+      }
+    };
+  }
+}
@@ -0,0 +1,90 @@
+package dev.lobophf.swplanetapi.datasource;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+// Needs to sit behind a LazyConnectionDataSourceProxy: the transaction's
+// read-only flag is only set after the transaction manager asks for a connection.
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+  static final String PRIMARY = "primary";
+  private static final int VALIDATION_TIMEOUT_SECONDS = 2;
+  private static final Logger log = LoggerFactory.getLogger(ReplicaRoutingDataSource.class);
+
+  private final Map<String, DataSource> replicas = new HashMap<>();
+  private final List<String> replicaKeys = new ArrayList<>();
+  private final Set<String> healthyReplicas = ConcurrentHashMap.newKeySet();
+  private final AtomicInteger next = new AtomicInteger();
+  private final ReadYourWritesTracker readYourWritesTracker;
+
+  public ReplicaRoutingDataSource(DataSource primary, List<DataSource> replicas,
+      ReadYourWritesTracker readYourWritesTracker) {
+    this.readYourWritesTracker = readYourWritesTracker;
+    Map<Object, Object> targets = new HashMap<>();
+    targets.put(PRIMARY, primary);
+    for (int i = 0; i < replicas.size(); i++) {
+      String key = "replica-" + i;
+      this.replicas.put(key, replicas.get(i));
+      this.replicaKeys.add(key);
+      targets.put(key, replicas.get(i));
+    }
+    healthyReplicas.addAll(replicaKeys);
+    setTargetDataSources(targets);
+    setDefaultTargetDataSource(primary);
+    afterPropertiesSet();
+  }
+
+  @Override
+  protected Object determineCurrentLookupKey() {
+    if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()
+        || readYourWritesTracker.mustReadFromPrimary()) {
+      return PRIMARY;
+    }
+    List<String> candidates = new ArrayList<>(replicaKeys.size());
+    for (String key : replicaKeys) {
+      if (healthyReplicas.contains(key)) {
+        candidates.add(key);
+      }
+    }
+    if (candidates.isEmpty()) {
+      return PRIMARY;
+    }
+    return candidates.get(Math.floorMod(next.getAndIncrement(), candidates.size()));
+  }
+
+  @Scheduled(fixedDelayString = "${planets.datasource.health-check-interval-ms:10000}")
+  public void checkHealth() {
+    replicas.forEach((key, dataSource) -> {
+      boolean healthy = isValid(dataSource);
+      if (healthy ? healthyReplicas.add(key) : healthyReplicas.remove(key)) {
+        log.warn("Replica {} is now {}", key, healthy ? "healthy" : "unhealthy");
+      }
+    });
+  }
+
+  public Set<String> getHealthyReplicas() {
+    return Set.copyOf(healthyReplicas);
+  }
+
+  private static boolean isValid(DataSource dataSource) {
+    try (Connection connection = dataSource.getConnection()) {
+      return connection.isValid(VALIDATION_TIMEOUT_SECONDS);
+    } catch (SQLException ex) {
+      return false;
+    }
+  }
+}
@@ -0,0 +1,68 @@
+package dev.lobophf.swplanetapi.datasource;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+// Replicas share the primary's credentials and driver; only their URLs differ.
+@Configuration
+@ConditionalOnExpression("!'${planets.datasource.replicas:}'.isEmpty()")
+public class RoutingDataSourceConfiguration {
+  @Bean
+  public ReadYourWritesTracker readYourWritesTracker(
+      @Value("${planets.datasource.read-your-writes-window:0s}") Duration window) {
+    return new ReadYourWritesTracker(window);
+  }
+
+  @Bean
+  public ReplicaRoutingDataSource replicaRoutingDataSource(DataSourceProperties properties,
+      @Value("${planets.datasource.replicas}") List<String> replicaUrls, ReadYourWritesTracker readYourWritesTracker,
+      ObjectProvider<MeterRegistry> meterRegistry) {
+    DataSource primary = pool(properties, properties.determineUrl(), "primary", meterRegistry);
+    List<DataSource> replicas = new ArrayList<>();
+    for (int i = 0; i < replicaUrls.size(); i++) {
+      replicas.add(pool(properties, replicaUrls.get(i).trim(), "replica-" + i, meterRegistry));
+    }
+    return new ReplicaRoutingDataSource(primary, replicas, readYourWritesTracker);
+  }
+
+  @Bean
+  @Primary
+  public DataSource dataSource(ReplicaRoutingDataSource replicaRoutingDataSource) {
+    return new LazyConnectionDataSourceProxy(replicaRoutingDataSource);
+  }
+
+  @Bean
+  public FilterRegistrationBean<ReadYourWritesFilter> readYourWritesFilter(ReadYourWritesTracker tracker) {
+    return new FilterRegistrationBean<>(new ReadYourWritesFilter(tracker));
+  }
+
+  private static HikariDataSource pool(DataSourceProperties properties, String url, String name,
+      ObjectProvider<MeterRegistry> meterRegistry) {
+    HikariDataSource dataSource = properties.initializeDataSourceBuilder()
+        .type(HikariDataSource.class)
+        .url(url)
+        .build();
+    dataSource.setPoolName(name);
+    meterRegistry.ifAvailable(registry -> dataSource.setMetricsTrackerFactory(
+        new MicrometerMetricsTrackerFactory(registry)));
+    return dataSource;
+  }
+}
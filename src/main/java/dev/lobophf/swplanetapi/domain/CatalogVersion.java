@@ -0,0 +1,36 @@
+package dev.lobophf.swplanetapi.domain;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Table;
+
+@Entity
+@Table(name = "catalog_version")
+public class CatalogVersion {
+  public static final Long PLANETS = 1L;
+  // Highest planets version whose changes were pruned from planet_changes.
+  public static final Long CHANGES_PRUNED = 2L;
+
+  @Id
+  private Long id;
+
+  @Column(nullable = false)
+  private long version;
+
+  public CatalogVersion() {
+  }
+
+  public CatalogVersion(Long id, long version) {
+    this.id = id;
+    this.version = version;
+  }
+
+  public Long getId() {
+    return id;
+  }
+
+  public long getVersion() {
+    return version;
+  }
+}
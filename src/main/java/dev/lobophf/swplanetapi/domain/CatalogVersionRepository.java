@@ -0,0 +1,21 @@
+package dev.lobophf.swplanetapi.domain;
+
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+
+public interface CatalogVersionRepository extends CrudRepository<CatalogVersion, Long> {
+  @Modifying
+  @Query("update CatalogVersion v set v.version = v.version + 1 where v.id = :id")
+  int increment(@Param("id") Long id);
+
+  // Reads the row itself, not a copy the persistence context may hold from
+  // before an increment.
+  @Query("select v.version from CatalogVersion v where v.id = :id")
+  long findVersion(@Param("id") Long id);
+
+  @Modifying
+  @Query("update CatalogVersion v set v.version = :version where v.id = :id and v.version < :version")
+  int advance(@Param("id") Long id, @Param("version") long version);
+}
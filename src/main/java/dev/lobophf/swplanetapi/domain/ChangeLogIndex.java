@@ -0,0 +1,114 @@
+package dev.lobophf.swplanetapi.domain;
+
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+// Base of the in-memory indexes. Each one is built from a snapshot on startup
+// and then follows the change log: this instance's writes are applied as they
+// commit, and other instances' writes when the catalog version poll calls
+// refresh. getVersion tells how far it has got.
+public abstract class ChangeLogIndex {
+  private static final int REFRESH_BATCH_SIZE = 1000;
+
+  protected final ReadWriteLock lock = new ReentrantReadWriteLock();
+  private final boolean enabled;
+  private final PlanetChangeLog changeLog;
+  private volatile long version = -1;
+  private volatile boolean ready;
+
+  protected ChangeLogIndex(boolean enabled, PlanetChangeLog changeLog) {
+    this.enabled = enabled;
+    this.changeLog = changeLog;
+  }
+
+  public boolean isReady() {
+    return ready;
+  }
+
+  public long getVersion() {
+    return version;
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void build() {
+    if (!enabled) {
+      return;
+    }
+    PlanetChanges snapshot = changeLog.snapshot();
+    lock.writeLock().lock();
+    try {
+      clear();
+      snapshot.getChanges().forEach(this::apply);
+      version = snapshot.getNext();
+    } finally {
+      lock.writeLock().unlock();
+    }
+    refresh();
+    ready = true;
+  }
+
+  // A write is applied straight away only when it is the next version; one
+  // that overtook another commit, or arrived while building, is left to refresh.
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onChange(PlanetChangeEvent event) {
+    if (!enabled) {
+      return;
+    }
+    lock.writeLock().lock();
+    try {
+      if (version != -1 && event.getVersion() == version + 1) {
+        event.getRemovedIds().forEach(this::remove);
+        event.getSaved().forEach(this::add);
+        version = event.getVersion();
+      }
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  // Reads the log from the index's version on. A version that has been pruned
+  // from the log means too much was missed, so the index is built again.
+  public void refresh() {
+    if (!enabled || version == -1) {
+      return;
+    }
+    try {
+      PlanetChanges changes;
+      do {
+        changes = changeLog.read(version, REFRESH_BATCH_SIZE);
+        lock.writeLock().lock();
+        try {
+          for (PlanetChange change : changes.getChanges()) {
+            // Skips what onChange applied while the page was being read.
+            if (change.getSequence() > version) {
+              apply(change);
+            }
+          }
+          version = Math.max(version, changes.getNext());
+        } finally {
+          lock.writeLock().unlock();
+        }
+      } while (changes.getChanges().size() >= REFRESH_BATCH_SIZE);
+    } catch (ResyncRequiredException ex) {
+      build();
+    }
+  }
+
+  protected abstract void add(Planet planet);
+
+  protected abstract void remove(Long id);
+
+  protected abstract void clear();
+
+  private void apply(PlanetChange change) {
+    if (change.getType() == PlanetChange.Type.REMOVED) {
+      remove(change.getPlanetId());
+    } else {
+      add(change.getPlanet());
+    }
+  }
+}
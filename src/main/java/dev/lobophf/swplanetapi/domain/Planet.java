@@ -1,14 +1,26 @@
 package dev.lobophf.swplanetapi.domain;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+import javax.persistence.CascadeType;
 import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
-import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.OneToMany;
+import javax.persistence.PrePersist;
 import javax.persistence.Table;
+import javax.persistence.Version;
 import javax.validation.constraints.NotEmpty;
 
-import org.apache.commons.lang3.builder.EqualsBuilder;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
+import org.hibernate.annotations.Parameter;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
 
 import dev.lobophf.swplanetapi.ExcludeFromJacocoGeneratedReport;
 
@@ -16,7 +28,13 @@ import dev.lobophf.swplanetapi.ExcludeFromJacocoGeneratedReport;
 @Table(name = "planets")
 public class Planet {
 	@Id
-	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	@GeneratedValue(generator = "planet_id")
+	@GenericGenerator(name = "planet_id", strategy = "enhanced-sequence", parameters = {
+			@Parameter(name = "sequence_name", value = "planets_seq"),
+			@Parameter(name = "increment_size", value = "50"),
+			@Parameter(name = "optimizer", value = "pooled"),
+			@Parameter(name = "force_table_use", value = "true")
+	})
 	private Long id;
 
 	@NotEmpty
@@ -31,6 +49,15 @@ public class Planet {
 	@Column(nullable = false)
 	private String terrain;
 
+	@JsonIgnore
+	@Version
+	private Long version;
+
+	@JsonIgnore
+	@OneToMany(mappedBy = "planet", cascade = CascadeType.ALL, orphanRemoval = true)
+	@OnDelete(action = OnDeleteAction.CASCADE)
+	private List<PlanetToken> tokens = new ArrayList<>();
+
 	public Planet() {
 	}
 
@@ -52,6 +79,11 @@ public class Planet {
 		this.terrain = terrain;
 	}
 
+	public Planet(Long id, String name, String climate, String terrain, Long version) {
+		this(id, name, climate, terrain);
+		this.version = version;
+	}
+
 	public Long getId() {
 		return id;
 	}
@@ -84,9 +116,33 @@ public class Planet {
 		this.terrain = terrain;
 	}
 
+	public Long getVersion() {
+		return version;
+	}
+
+	@PrePersist
+	void syncTokens() {
+		tokens.clear();
+		PlanetToken.tokenize(terrain).forEach(token -> tokens.add(new PlanetToken(this, PlanetToken.Kind.TERRAIN, token)));
+		PlanetToken.tokenize(climate).forEach(token -> tokens.add(new PlanetToken(this, PlanetToken.Kind.CLIMATE, token)));
+	}
+
 	@Override
 	public boolean equals(Object obj) {
-		return EqualsBuilder.reflectionEquals(obj, this);
+		if (this == obj) {
+			return true;
+		}
+		if (!(obj instanceof Planet)) {
+			return false;
+		}
+		Planet other = (Planet) obj;
+		return Objects.equals(id, other.id) && Objects.equals(name, other.name)
+				&& Objects.equals(climate, other.climate) && Objects.equals(terrain, other.terrain);
+	}
+
+	@Override
+	public int hashCode() {
+		return Objects.hash(id, name, climate, terrain);
 	}
 
 	@Override
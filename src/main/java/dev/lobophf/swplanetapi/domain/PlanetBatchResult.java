@@ -0,0 +1,42 @@
+package dev.lobophf.swplanetapi.domain;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+public class PlanetBatchResult {
+  public enum Status {
+    CREATED, UPDATED, UNCHANGED, CONFLICT
+  }
+
+  private final int index;
+  private final Status status;
+  private final Planet planet;
+
+  @JsonCreator
+  public PlanetBatchResult(@JsonProperty("index") int index, @JsonProperty("status") Status status,
+      @JsonProperty("planet") Planet planet) {
+    this.index = index;
+    this.status = status;
+    this.planet = planet;
+  }
+
+  public static PlanetBatchResult created(int index, Planet planet) {
+    return new PlanetBatchResult(index, Status.CREATED, planet);
+  }
+
+  public static PlanetBatchResult conflict(int index, Planet planet) {
+    return new PlanetBatchResult(index, Status.CONFLICT, planet);
+  }
+
+  public int getIndex() {
+    return index;
+  }
+
+  public Status getStatus() {
+    return status;
+  }
+
+  public Planet getPlanet() {
+    return planet;
+  }
+}
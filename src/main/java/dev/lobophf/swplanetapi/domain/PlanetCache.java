@@ -0,0 +1,119 @@
+package dev.lobophf.swplanetapi.domain;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+@Component
+@Profile("!reactive")
+public class PlanetCache implements MeterBinder {
+  private final boolean enabled;
+  private final Cache<Long, Planet> planetsById;
+  private final Cache<String, Long> idsByName;
+
+  public PlanetCache(@Value("${planets.cache.enabled:true}") boolean enabled,
+      @Value("${planets.cache.max-size:10000}") long maxSize,
+      @Value("${planets.cache.ttl:60s}") Duration ttl) {
+    this.enabled = enabled;
+    this.planetsById = Caffeine.newBuilder().maximumSize(maxSize).expireAfterWrite(ttl).recordStats().build();
+    this.idsByName = Caffeine.newBuilder().maximumSize(maxSize).expireAfterWrite(ttl).recordStats().build();
+  }
+
+  public Optional<Planet> get(Long id, Function<Long, Optional<Planet>> loader) {
+    if (!enabled) {
+      return loader.apply(id);
+    }
+    Planet planet = planetsById.getIfPresent(id);
+    if (planet != null) {
+      return Optional.of(planet);
+    }
+    Optional<Planet> loaded = loader.apply(id);
+    loaded.ifPresent(this::put);
+    return loaded;
+  }
+
+  public Optional<Planet> getByName(String name, Function<String, Optional<Planet>> loader) {
+    if (!enabled) {
+      return loader.apply(name);
+    }
+    // Keyed on the exact name: whether names differing only in case match is up
+    // to the database collation, so those lookups are left to the loader.
+    Long id = idsByName.getIfPresent(name);
+    if (id != null) {
+      Planet planet = planetsById.getIfPresent(id);
+      if (planet != null && name.equals(planet.getName())) {
+        return Optional.of(planet);
+      }
+    }
+    Optional<Planet> loaded = loader.apply(name);
+    loaded.ifPresent(this::put);
+    return loaded;
+  }
+
+  public Map<Long, Planet> getAll(Collection<Long> ids, Function<List<Long>, List<Planet>> loader) {
+    Map<Long, Planet> planets = new HashMap<>();
+    List<Long> missingIds = new ArrayList<>();
+    for (Long id : ids) {
+      Planet planet = enabled ? planetsById.getIfPresent(id) : null;
+      if (planet != null) {
+        planets.put(id, planet);
+      } else {
+        missingIds.add(id);
+      }
+    }
+    if (!missingIds.isEmpty()) {
+      for (Planet planet : loader.apply(missingIds)) {
+        put(planet);
+        planets.put(planet.getId(), planet);
+      }
+    }
+    return planets;
+  }
+
+  public void put(Planet planet) {
+    if (!enabled || planet.getId() == null) {
+      return;
+    }
+    planetsById.put(planet.getId(), planet);
+    idsByName.put(planet.getName(), planet.getId());
+  }
+
+  public void evict(Long id) {
+    // A stale name entry pointing at this id falls through to the loader.
+    planetsById.invalidate(id);
+  }
+
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onChange(PlanetChangeEvent event) {
+    event.getSaved().forEach(this::put);
+    event.getRemovedIds().forEach(this::evict);
+  }
+
+  public void invalidateAll() {
+    planetsById.invalidateAll();
+    idsByName.invalidateAll();
+  }
+
+  @Override
+  public void bindTo(MeterRegistry registry) {
+    CaffeineCacheMetrics.monitor(registry, planetsById, "planets.byId");
+    CaffeineCacheMetrics.monitor(registry, idsByName, "planets.byName");
+  }
+}
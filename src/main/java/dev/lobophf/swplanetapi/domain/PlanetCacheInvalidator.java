@@ -0,0 +1,45 @@
+package dev.lobophf.swplanetapi.domain;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Component
+@Profile("!reactive")
+public class PlanetCacheInvalidator {
+  private final PlanetCache planetCache;
+  private final PlanetIndex planetIndex;
+  private final PlanetNameIndex planetNameIndex;
+  private final CatalogVersionRepository catalogVersionRepository;
+  private volatile long knownVersion = -1;
+
+  public PlanetCacheInvalidator(PlanetCache planetCache, PlanetIndex planetIndex, PlanetNameIndex planetNameIndex,
+      CatalogVersionRepository catalogVersionRepository) {
+    this.planetCache = planetCache;
+    this.planetIndex = planetIndex;
+    this.planetNameIndex = planetNameIndex;
+    this.catalogVersionRepository = catalogVersionRepository;
+  }
+
+  @Scheduled(fixedDelayString = "${planets.cache.poll-interval-ms:5000}")
+  public void pollVersion() {
+    long version = catalogVersionRepository.findById(CatalogVersion.PLANETS).map(CatalogVersion::getVersion).orElse(0L);
+    if (version != knownVersion) {
+      if (knownVersion != -1) {
+        planetCache.invalidateAll();
+      }
+      knownVersion = version;
+    }
+    // Other instances' writes only reach the indexes through the change log.
+    // Until they have caught up, for instance from a lagging replica, they are
+    // refreshed on every poll, and filtered lists are read from the database.
+    refresh(planetIndex, version);
+    refresh(planetNameIndex, version);
+  }
+
+  private static void refresh(ChangeLogIndex index, long version) {
+    if (index.isReady() && index.getVersion() < version) {
+      index.refresh();
+    }
+  }
+}
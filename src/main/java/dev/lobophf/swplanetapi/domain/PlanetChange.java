@@ -0,0 +1,112 @@
+package dev.lobophf.swplanetapi.domain;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.EnumType;
+import javax.persistence.Enumerated;
+import javax.persistence.Id;
+import javax.persistence.IdClass;
+import javax.persistence.Table;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+// One entry of the change log. The sequence is the catalog version the write
+// produced: every planet touched by the same transaction shares it, and since
+// the version row stays locked until commit, sequences appear in commit order.
+@Entity
+@Table(name = "planet_changes")
+@IdClass(PlanetChange.Key.class)
+public class PlanetChange {
+  public enum Type {
+    SAVED, REMOVED
+  }
+
+  @Id
+  @Column(name = "seq")
+  private long sequence;
+
+  @Id
+  @Column(name = "planet_id")
+  private Long planetId;
+
+  @Enumerated(EnumType.STRING)
+  @Column(nullable = false, length = 16)
+  private Type type;
+
+  private String name;
+
+  private String climate;
+
+  private String terrain;
+
+  public PlanetChange() {
+  }
+
+  private PlanetChange(long sequence, Long planetId, Type type, String name, String climate, String terrain) {
+    this.sequence = sequence;
+    this.planetId = planetId;
+    this.type = type;
+    this.name = name;
+    this.climate = climate;
+    this.terrain = terrain;
+  }
+
+  public static PlanetChange saved(long sequence, Planet planet) {
+    return new PlanetChange(sequence, planet.getId(), Type.SAVED, planet.getName(), planet.getClimate(),
+        planet.getTerrain());
+  }
+
+  public static PlanetChange removed(long sequence, Long planetId) {
+    return new PlanetChange(sequence, planetId, Type.REMOVED, null, null, null);
+  }
+
+  public long getSequence() {
+    return sequence;
+  }
+
+  public Long getPlanetId() {
+    return planetId;
+  }
+
+  public Type getType() {
+    return type;
+  }
+
+  @JsonInclude(JsonInclude.Include.NON_NULL)
+  public Planet getPlanet() {
+    return type == Type.SAVED ? new Planet(planetId, name, climate, terrain) : null;
+  }
+
+  public static class Key implements Serializable {
+    private long sequence;
+    private Long planetId;
+
+    public Key() {
+    }
+
+    public Key(long sequence, Long planetId) {
+      this.sequence = sequence;
+      this.planetId = planetId;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (this == obj) {
+        return true;
+      }
+      if (!(obj instanceof Key)) {
+        return false;
+      }
+      Key other = (Key) obj;
+      return sequence == other.sequence && Objects.equals(planetId, other.planetId);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(sequence, planetId);
+    }
+  }
+}
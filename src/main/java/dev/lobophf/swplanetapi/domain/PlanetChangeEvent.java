@@ -0,0 +1,37 @@
+package dev.lobophf.swplanetapi.domain;
+
+import java.util.Collection;
+import java.util.List;
+
+public class PlanetChangeEvent {
+  private final long version;
+  private final List<Planet> saved;
+  private final List<Long> removedIds;
+
+  private PlanetChangeEvent(long version, List<Planet> saved, List<Long> removedIds) {
+    this.version = version;
+    this.saved = saved;
+    this.removedIds = removedIds;
+  }
+
+  public static PlanetChangeEvent saved(long version, Collection<Planet> planets) {
+    return new PlanetChangeEvent(version, List.copyOf(planets), List.of());
+  }
+
+  public static PlanetChangeEvent removed(long version, Collection<Long> ids) {
+    return new PlanetChangeEvent(version, List.of(), List.copyOf(ids));
+  }
+
+  // The catalog version the write produced, i.e. the sequence of its changes.
+  public long getVersion() {
+    return version;
+  }
+
+  public List<Planet> getSaved() {
+    return saved;
+  }
+
+  public List<Long> getRemovedIds() {
+    return removedIds;
+  }
+}
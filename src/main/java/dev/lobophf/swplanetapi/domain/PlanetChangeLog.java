@@ -0,0 +1,107 @@
+package dev.lobophf.swplanetapi.domain;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+// Reads and prunes the changes PlanetService records in planet_changes. Only
+// the last planets.changes.retention versions are kept; a reader whose cursor
+// is older than that has to reload the catalog.
+@Service
+public class PlanetChangeLog {
+  private final PlanetChangeRepository planetChangeRepository;
+  private final CatalogVersionRepository catalogVersionRepository;
+  private final PlanetRepository planetRepository;
+
+  @Value("${planets.changes.retention:10000}")
+  private long retention = 10000;
+
+  public PlanetChangeLog(PlanetChangeRepository planetChangeRepository,
+      CatalogVersionRepository catalogVersionRepository, PlanetRepository planetRepository) {
+    this.planetChangeRepository = planetChangeRepository;
+    this.catalogVersionRepository = catalogVersionRepository;
+    this.planetRepository = planetRepository;
+  }
+
+  // Runs on both stacks, since both bump the version. Writes made before the
+  // log existed were never recorded, so a catalog that predates it starts out
+  // as pruned up to its current version.
+  @EventListener(ApplicationReadyEvent.class)
+  public void createVersionRows() {
+    createVersionRow(CatalogVersion.PLANETS, 0);
+    createVersionRow(CatalogVersion.CHANGES_PRUNED, currentVersion());
+  }
+
+  public long currentVersion() {
+    return version(CatalogVersion.PLANETS);
+  }
+
+  // Change sets are never split: a full page is completed with the rest of
+  // its last version, so next always points at a version boundary.
+  @Transactional(readOnly = true)
+  public PlanetChanges read(long since, int limit) {
+    long version = currentVersion();
+    if (since < version(CatalogVersion.CHANGES_PRUNED)) {
+      throw new ResyncRequiredException(since, version);
+    }
+
+    List<PlanetChange> changes = new ArrayList<>(planetChangeRepository.findSince(since, PageRequest.of(0, limit)));
+    if (changes.size() < limit) {
+      // Every version up to the one read above has committed its changes, so
+      // versions without any, such as a batch with only conflicts, are skipped.
+      long next = Math.max(since, version);
+      if (!changes.isEmpty()) {
+        next = Math.max(next, changes.get(changes.size() - 1).getSequence());
+      }
+      return new PlanetChanges(changes, next);
+    }
+    PlanetChange last = changes.get(changes.size() - 1);
+    changes.addAll(planetChangeRepository.findRestOf(last.getSequence(), last.getPlanetId()));
+    return new PlanetChanges(changes, last.getSequence());
+  }
+
+  // Every planet as a change saved at the version read first, in the same
+  // transaction and so on the same data source. Planets may already include
+  // later writes; replaying the log from that version sets them right.
+  @Transactional(readOnly = true)
+  public PlanetChanges snapshot() {
+    long version = currentVersion();
+    List<PlanetChange> planets = planetRepository.findViews(QueryBuilder.makeTokenSpecification(null, null)).stream()
+        .map(planet -> PlanetChange.saved(version, planet))
+        .collect(Collectors.toList());
+    return new PlanetChanges(planets, version);
+  }
+
+  @Scheduled(fixedDelayString = "${planets.changes.prune-interval-ms:60000}")
+  @Transactional
+  public void prune() {
+    long pruneThrough = currentVersion() - retention;
+    if (pruneThrough > 0 && catalogVersionRepository.advance(CatalogVersion.CHANGES_PRUNED, pruneThrough) > 0) {
+      planetChangeRepository.deleteThrough(pruneThrough);
+    }
+  }
+
+  private void createVersionRow(Long id, long version) {
+    if (catalogVersionRepository.existsById(id)) {
+      return;
+    }
+    try {
+      catalogVersionRepository.save(new CatalogVersion(id, version));
+    } catch (DataIntegrityViolationException ex) {
+      // Another instance created it first.
+    }
+  }
+
+  private long version(Long id) {
+    return catalogVersionRepository.findById(id).map(CatalogVersion::getVersion).orElse(0L);
+  }
+}
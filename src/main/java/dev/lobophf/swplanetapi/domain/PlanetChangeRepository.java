@@ -0,0 +1,21 @@
+package dev.lobophf.swplanetapi.domain;
+
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+
+public interface PlanetChangeRepository extends CrudRepository<PlanetChange, PlanetChange.Key> {
+  @Query("select c from PlanetChange c where c.sequence > :since order by c.sequence, c.planetId")
+  List<PlanetChange> findSince(@Param("since") long since, Pageable pageable);
+
+  @Query("select c from PlanetChange c where c.sequence = :sequence and c.planetId > :planetId order by c.planetId")
+  List<PlanetChange> findRestOf(@Param("sequence") long sequence, @Param("planetId") Long planetId);
+
+  @Modifying
+  @Query("delete from PlanetChange c where c.sequence <= :sequence")
+  int deleteThrough(@Param("sequence") long sequence);
+}
@@ -0,0 +1,22 @@
+package dev.lobophf.swplanetapi.domain;
+
+import java.util.List;
+
+// A page of the change log. Pass next as since to continue after it.
+public class PlanetChanges {
+  private final List<PlanetChange> changes;
+  private final long next;
+
+  public PlanetChanges(List<PlanetChange> changes, long next) {
+    this.changes = changes;
+    this.next = next;
+  }
+
+  public List<PlanetChange> getChanges() {
+    return changes;
+  }
+
+  public long getNext() {
+    return next;
+  }
+}
@@ -0,0 +1,106 @@
+package dev.lobophf.swplanetapi.domain;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.EnumType;
+import javax.persistence.Enumerated;
+import javax.persistence.Id;
+import javax.persistence.IdClass;
+import javax.persistence.Table;
+
+// Number of planets per terrain and climate token. The counts are adjusted from
+// the planet_tokens rows of the planets being written, in the same transaction,
+// so reading the facets never touches planets.
+@Entity
+@Table(name = "planet_facets")
+@IdClass(PlanetFacet.Key.class)
+public class PlanetFacet {
+  private static final String DELTAS = "SELECT kind, token, COUNT(*) AS delta FROM planet_tokens "
+      + "WHERE planet_id IN (:ids) GROUP BY kind, token";
+
+  // Run after the tokens of the given planets are written.
+  public static final String MYSQL_ADD = "INSERT INTO planet_facets (kind, token, planet_count) "
+      + "SELECT * FROM (" + DELTAS + ") AS d "
+      + "ON DUPLICATE KEY UPDATE planet_count = planet_count + delta";
+
+  public static final String H2_ADD = "MERGE INTO planet_facets f USING (" + DELTAS + ") d "
+      + "ON f.kind = d.kind AND f.token = d.token "
+      + "WHEN MATCHED THEN UPDATE SET planet_count = f.planet_count + d.delta "
+      + "WHEN NOT MATCHED THEN INSERT (kind, token, planet_count) VALUES (d.kind, d.token, d.delta)";
+
+  // Run before the tokens of the given planets are deleted.
+  public static final String MYSQL_REMOVE = "UPDATE planet_facets f JOIN (" + DELTAS + ") d "
+      + "ON f.kind = d.kind AND f.token = d.token SET f.planet_count = f.planet_count - d.delta";
+
+  public static final String H2_REMOVE = "MERGE INTO planet_facets f USING (" + DELTAS + ") d "
+      + "ON f.kind = d.kind AND f.token = d.token "
+      + "WHEN MATCHED THEN UPDATE SET planet_count = f.planet_count - d.delta";
+
+  public static final String REBUILD = "INSERT INTO planet_facets (kind, token, planet_count) "
+      + "SELECT kind, token, COUNT(*) FROM planet_tokens GROUP BY kind, token";
+
+  @Id
+  @Enumerated(EnumType.STRING)
+  @Column(length = 16)
+  private PlanetToken.Kind kind;
+
+  @Id
+  private String token;
+
+  @Column(name = "planet_count", nullable = false)
+  private long planetCount;
+
+  public PlanetFacet() {
+  }
+
+  public PlanetFacet(PlanetToken.Kind kind, String token, long planetCount) {
+    this.kind = kind;
+    this.token = token;
+    this.planetCount = planetCount;
+  }
+
+  public PlanetToken.Kind getKind() {
+    return kind;
+  }
+
+  public String getToken() {
+    return token;
+  }
+
+  public long getPlanetCount() {
+    return planetCount;
+  }
+
+  public static class Key implements Serializable {
+    private PlanetToken.Kind kind;
+    private String token;
+
+    public Key() {
+    }
+
+    public Key(PlanetToken.Kind kind, String token) {
+      this.kind = kind;
+      this.token = token;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (this == obj) {
+        return true;
+      }
+      if (!(obj instanceof Key)) {
+        return false;
+      }
+      Key other = (Key) obj;
+      return kind == other.kind && Objects.equals(token, other.token);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(kind, token);
+    }
+  }
+}
@@ -0,0 +1,41 @@
+package dev.lobophf.swplanetapi.domain;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.task.TaskExecutorBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.annotation.Profile;
+import org.springframework.scheduling.annotation.AsyncAnnotationBeanPostProcessor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+// One pool shared by every import, so concurrent uploads together never run
+// more than planets.import.parallelism chunks. Declaring an executor makes Boot
+// back off from its own, so applicationTaskExecutor is declared here as well.
+@Configuration
+@Profile("!reactive")
+public class PlanetImportConfiguration {
+  @Bean
+  public ThreadPoolTaskExecutor planetImportExecutor(@Value("${planets.import.parallelism:4}") int parallelism) {
+    ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+    executor.setCorePoolSize(parallelism);
+    executor.setMaxPoolSize(parallelism);
+    // When the queue is full the reading thread runs the chunk itself, which
+    // holds it back from reading further ahead.
+    executor.setQueueCapacity(parallelism);
+    executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+    executor.setThreadNamePrefix("planet-import-");
+    executor.setWaitForTasksToCompleteOnShutdown(true);
+    return executor;
+  }
+
+  @Lazy
+  @Bean(name = { TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME,
+      AsyncAnnotationBeanPostProcessor.DEFAULT_TASK_EXECUTOR_BEAN_NAME })
+  public ThreadPoolTaskExecutor applicationTaskExecutor(TaskExecutorBuilder builder) {
+    return builder.build();
+  }
+}
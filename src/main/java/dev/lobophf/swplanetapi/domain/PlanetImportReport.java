@@ -0,0 +1,75 @@
+package dev.lobophf.swplanetapi.domain;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+public class PlanetImportReport {
+  public static class RowError {
+    private final long row;
+    private final String message;
+
+    @JsonCreator
+    public RowError(@JsonProperty("row") long row, @JsonProperty("message") String message) {
+      this.row = row;
+      this.message = message;
+    }
+
+    public long getRow() {
+      return row;
+    }
+
+    public String getMessage() {
+      return message;
+    }
+  }
+
+  private final int maxErrors;
+  private final AtomicLong rows = new AtomicLong();
+  private final AtomicLong created = new AtomicLong();
+  private final AtomicLong failed = new AtomicLong();
+  private final List<RowError> errors = new ArrayList<>();
+
+  public PlanetImportReport(int maxErrors) {
+    this.maxErrors = maxErrors;
+  }
+
+  void read() {
+    rows.incrementAndGet();
+  }
+
+  long created(int count) {
+    return created.addAndGet(count);
+  }
+
+  void failed(long row, String message) {
+    failed.incrementAndGet();
+    synchronized (errors) {
+      if (errors.size() < maxErrors) {
+        errors.add(new RowError(row, message));
+      }
+    }
+  }
+
+  public long getRows() {
+    return rows.get();
+  }
+
+  public long getCreated() {
+    return created.get();
+  }
+
+  public long getFailed() {
+    return failed.get();
+  }
+
+  // Only the first errors are kept, so a bad file cannot exhaust the heap.
+  public List<RowError> getErrors() {
+    synchronized (errors) {
+      return List.copyOf(errors);
+    }
+  }
+}
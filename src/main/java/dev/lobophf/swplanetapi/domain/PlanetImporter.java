@@ -0,0 +1,197 @@
+package dev.lobophf.swplanetapi.domain;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Collectors;
+
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+
+// Reads the file row by row and hands chunks to the shared import pool, each
+// chunk going through PlanetService.createAll in its own transaction. The
+// pool's queue is bounded and the reading thread runs a chunk itself when it
+// is full, so memory stays flat however large the file is.
+@Service
+@Profile("!reactive")
+public class PlanetImporter {
+  public enum Format {
+    JSON, CSV
+  }
+
+  private static final Logger log = LoggerFactory.getLogger(PlanetImporter.class);
+  private static final int MAX_REPORTED_ERRORS = 1000;
+
+  private final PlanetService planetService;
+  private final ObjectMapper objectMapper;
+  private final CsvMapper csvMapper = CsvMapper.builder()
+      .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+      .build();
+  private final Validator validator;
+  private final AsyncTaskExecutor executor;
+
+  @Value("${planets.import.chunk-size:1000}")
+  private int chunkSize = 1000;
+
+  @Value("${planets.import.progress-interval:100000}")
+  private long progressInterval = 100000;
+
+  public PlanetImporter(PlanetService planetService, ObjectMapper objectMapper, Validator validator,
+      @Qualifier("planetImportExecutor") AsyncTaskExecutor executor) {
+    this.planetService = planetService;
+    this.objectMapper = objectMapper;
+    this.validator = validator;
+    this.executor = executor;
+  }
+
+  public PlanetImportReport importPlanets(InputStream input, Format format) throws IOException {
+    PlanetImportReport report = new PlanetImportReport(MAX_REPORTED_ERRORS);
+    List<Future<?>> pending = new ArrayList<>();
+    try (MappingIterator<Planet> rows = reader(format).readValues(input)) {
+      List<Planet> chunk = new ArrayList<>(chunkSize);
+      List<Long> rowNumbers = new ArrayList<>(chunkSize);
+      while (true) {
+        long row = report.getRows();
+        try {
+          if (!rows.hasNextValue()) {
+            break;
+          }
+          report.read();
+          Planet planet = rows.nextValue();
+          String violations = validate(planet);
+          if (violations != null) {
+            report.failed(row, violations);
+            continue;
+          }
+          // Ids in the file are ignored, every row is created as a new planet.
+          chunk.add(new Planet(planet.getName(), planet.getClimate(), planet.getTerrain()));
+          rowNumbers.add(row);
+        } catch (JsonParseException ex) {
+          report.failed(row, ex.getOriginalMessage());
+          break;
+        } catch (JsonMappingException ex) {
+          report.failed(row, ex.getOriginalMessage());
+          continue;
+        }
+
+        if (chunk.size() == chunkSize) {
+          submit(pending, chunk, rowNumbers, report);
+          chunk = new ArrayList<>(chunkSize);
+          rowNumbers = new ArrayList<>(chunkSize);
+        }
+      }
+      if (!chunk.isEmpty()) {
+        submit(pending, chunk, rowNumbers, report);
+      }
+    } finally {
+      await(pending);
+    }
+    log.info("Import finished: {} rows, {} created, {} failed", report.getRows(), report.getCreated(),
+        report.getFailed());
+    return report;
+  }
+
+  private ObjectReader reader(Format format) {
+    if (format == Format.CSV) {
+      return csvMapper.readerFor(Planet.class).with(CsvSchema.emptySchema().withHeader());
+    }
+    return objectMapper.readerFor(Planet.class);
+  }
+
+  private String validate(Planet planet) {
+    Set<ConstraintViolation<Planet>> violations = validator.validate(planet);
+    if (violations.isEmpty()) {
+      return null;
+    }
+    return violations.stream().map(violation -> violation.getPropertyPath() + " " + violation.getMessage())
+        .sorted().collect(Collectors.joining(", "));
+  }
+
+  private void submit(List<Future<?>> pending, List<Planet> chunk, List<Long> rowNumbers,
+      PlanetImportReport report) {
+    pending.removeIf(Future::isDone);
+    pending.add(executor.submit(() -> importChunk(chunk, rowNumbers, report)));
+  }
+
+  private void importChunk(List<Planet> chunk, List<Long> rowNumbers, PlanetImportReport report) {
+    List<PlanetBatchResult> results;
+    try {
+      results = createAll(chunk);
+    } catch (RuntimeException ex) {
+      log.warn("Import of rows {} to {} failed", rowNumbers.get(0), rowNumbers.get(rowNumbers.size() - 1), ex);
+      rowNumbers.forEach(row -> report.failed(row, ex.getMessage()));
+      return;
+    }
+
+    int created = 0;
+    for (PlanetBatchResult result : results) {
+      if (result.getStatus() == PlanetBatchResult.Status.CREATED) {
+        created++;
+      } else {
+        report.failed(rowNumbers.get(result.getIndex()), "name already exists");
+      }
+    }
+    long total = report.created(created);
+    if (total / progressInterval != (total - created) / progressInterval) {
+      log.info("Imported {} planets", total);
+    }
+  }
+
+  private List<PlanetBatchResult> createAll(List<Planet> chunk) {
+    try {
+      return planetService.createAll(chunk);
+    } catch (DataIntegrityViolationException ex) {
+      // A chunk committed concurrently took one of the names. Retrying reports
+      // it as a conflict instead of failing the whole chunk.
+      return planetService.createAll(chunk.stream()
+          .map(planet -> new Planet(planet.getName(), planet.getClimate(), planet.getTerrain()))
+          .collect(Collectors.toList()));
+    }
+  }
+
+  // Waits for this import's chunks only; the pool is shared with other imports.
+  private static void await(List<Future<?>> pending) {
+    try {
+      for (Future<?> future : pending) {
+        while (true) {
+          try {
+            future.get(1, TimeUnit.MINUTES);
+            break;
+          } catch (TimeoutException ex) {
+            log.info("Waiting for {} import chunks", pending.stream().filter(f -> !f.isDone()).count());
+          } catch (ExecutionException ex) {
+            log.error("Import chunk failed", ex.getCause());
+            break;
+          }
+        }
+      }
+    } catch (InterruptedException ex) {
+      pending.forEach(future -> future.cancel(true));
+      Thread.currentThread().interrupt();
+    }
+  }
+}
@@ -0,0 +1,101 @@
+package dev.lobophf.swplanetapi.domain;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.roaringbitmap.longlong.LongIterator;
+import org.roaringbitmap.longlong.Roaring64NavigableMap;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+@Component
+@Profile("!reactive")
+public class PlanetIndex extends ChangeLogIndex {
+  private final Map<Long, Planet> planets = new HashMap<>();
+  private final Map<String, Roaring64NavigableMap> terrainIndex = new HashMap<>();
+  private final Map<String, Roaring64NavigableMap> climateIndex = new HashMap<>();
+  private final Roaring64NavigableMap allIds = new Roaring64NavigableMap();
+
+  public PlanetIndex(@Value("${planets.index.enabled:false}") boolean enabled, PlanetChangeLog changeLog) {
+    super(enabled, changeLog);
+  }
+
+  public List<Planet> find(String terrain, String climate) {
+    lock.readLock().lock();
+    try {
+      Roaring64NavigableMap ids = new Roaring64NavigableMap();
+      ids.or(allIds);
+      if (terrain != null) {
+        ids.and(anyToken(terrainIndex, terrain));
+      }
+      if (climate != null) {
+        ids.and(anyToken(climateIndex, climate));
+      }
+
+      List<Planet> result = new ArrayList<>();
+      LongIterator iterator = ids.getLongIterator();
+      while (iterator.hasNext()) {
+        result.add(planets.get(iterator.next()));
+      }
+      return result;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  @Override
+  protected void add(Planet planet) {
+    remove(planet.getId());
+    planets.put(planet.getId(), planet);
+    allIds.addLong(planet.getId());
+    PlanetToken.tokenize(planet.getTerrain()).forEach(token -> bitmap(terrainIndex, token).addLong(planet.getId()));
+    PlanetToken.tokenize(planet.getClimate()).forEach(token -> bitmap(climateIndex, token).addLong(planet.getId()));
+  }
+
+  @Override
+  protected void remove(Long id) {
+    Planet planet = planets.remove(id);
+    if (planet == null) {
+      return;
+    }
+    allIds.removeLong(id);
+    PlanetToken.tokenize(planet.getTerrain()).forEach(token -> unindex(terrainIndex, token, id));
+    PlanetToken.tokenize(planet.getClimate()).forEach(token -> unindex(climateIndex, token, id));
+  }
+
+  @Override
+  protected void clear() {
+    planets.clear();
+    terrainIndex.clear();
+    climateIndex.clear();
+    allIds.clear();
+  }
+
+  private static Roaring64NavigableMap bitmap(Map<String, Roaring64NavigableMap> index, String token) {
+    return index.computeIfAbsent(token, key -> new Roaring64NavigableMap());
+  }
+
+  private static void unindex(Map<String, Roaring64NavigableMap> index, String token, Long id) {
+    Roaring64NavigableMap ids = index.get(token);
+    if (ids != null) {
+      ids.removeLong(id);
+      if (ids.isEmpty()) {
+        index.remove(token);
+      }
+    }
+  }
+
+  private static Roaring64NavigableMap anyToken(Map<String, Roaring64NavigableMap> index, String value) {
+    Roaring64NavigableMap ids = new Roaring64NavigableMap();
+    for (String token : PlanetToken.tokenize(value)) {
+      Roaring64NavigableMap tokenIds = index.get(token);
+      if (tokenIds != null) {
+        ids.or(tokenIds);
+      }
+    }
+    return ids;
+  }
+}
@@ -0,0 +1,22 @@
+package dev.lobophf.swplanetapi.domain;
+
+import java.util.List;
+
+// Planets together with the catalog version they were read at.
+public class PlanetListing {
+  private final long version;
+  private final List<Planet> planets;
+
+  public PlanetListing(long version, List<Planet> planets) {
+    this.version = version;
+    this.planets = planets;
+  }
+
+  public long getVersion() {
+    return version;
+  }
+
+  public List<Planet> getPlanets() {
+    return planets;
+  }
+}
@@ -0,0 +1,26 @@
+package dev.lobophf.swplanetapi.domain;
+
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+public class PlanetLookup {
+  private final List<Planet> planets;
+  private final List<Long> missingIds;
+
+  @JsonCreator
+  public PlanetLookup(@JsonProperty("planets") List<Planet> planets,
+      @JsonProperty("missingIds") List<Long> missingIds) {
+    this.planets = planets;
+    this.missingIds = missingIds;
+  }
+
+  public List<Planet> getPlanets() {
+    return planets;
+  }
+
+  public List<Long> getMissingIds() {
+    return missingIds;
+  }
+}
@@ -0,0 +1,75 @@
+package dev.lobophf.swplanetapi.domain;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.regex.Pattern;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+@Component
+@Profile("!reactive")
+public class PlanetNameIndex extends ChangeLogIndex {
+  private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+  // Separates the normalized name from the id, so names that only differ in
+  // case or accents get their own keys. Sorts before any character of a name.
+  private static final char SEPARATOR = '\u0000';
+
+  private final NavigableMap<String, Planet> names = new TreeMap<>();
+  private final Map<Long, String> keys = new HashMap<>();
+
+  public PlanetNameIndex(@Value("${planets.search.enabled:true}") boolean enabled, PlanetChangeLog changeLog) {
+    super(enabled, changeLog);
+  }
+
+  public List<Planet> search(String prefix, int limit) {
+    String from = normalize(prefix);
+    lock.readLock().lock();
+    try {
+      List<Planet> result = new ArrayList<>(limit);
+      for (Planet planet : names.subMap(from, true, from + Character.MAX_VALUE, false).values()) {
+        if (result.size() == limit) {
+          break;
+        }
+        result.add(planet);
+      }
+      return result;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  static String normalize(String name) {
+    String decomposed = Normalizer.normalize(name, Normalizer.Form.NFD);
+    return DIACRITICS.matcher(decomposed).replaceAll("").toLowerCase(Locale.ROOT);
+  }
+
+  @Override
+  protected void add(Planet planet) {
+    remove(planet.getId());
+    String key = normalize(planet.getName()) + SEPARATOR + planet.getId();
+    names.put(key, planet);
+    keys.put(planet.getId(), key);
+  }
+
+  @Override
+  protected void remove(Long id) {
+    String key = keys.remove(id);
+    if (key != null) {
+      names.remove(key);
+    }
+  }
+
+  @Override
+  protected void clear() {
+    names.clear();
+    keys.clear();
+  }
+}
@@ -1,15 +1,40 @@
 package dev.lobophf.swplanetapi.domain;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 import org.springframework.data.domain.Example;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.data.repository.query.QueryByExampleExecutor;
 
-public interface PlanetRepository extends CrudRepository<Planet, Long>, QueryByExampleExecutor<Planet> {
+public interface PlanetRepository extends CrudRepository<Planet, Long>, QueryByExampleExecutor<Planet>,
+    JpaSpecificationExecutor<Planet>, PlanetRepositoryCustom {
   Optional<Planet> findByName(String name);
 
+  @Query("select p.name from Planet p where p.name in :names")
+  List<String> findNamesIn(@Param("names") Collection<String> names);
+
+  @Query("select new dev.lobophf.swplanetapi.domain.Planet(p.id, p.name, p.climate, p.terrain, p.version) "
+      + "from Planet p where p.id in :ids")
+  List<Planet> findViewsByIds(@Param("ids") Collection<Long> ids);
+
+  @Query("select p from Planet p where p.id > :after and p.tokens is empty order by p.id")
+  List<Planet> findUntokenized(@Param("after") Long after, Pageable pageable);
+
+  @Modifying
+  @Query("delete from Planet p where p.id = :id")
+  int deleteOne(@Param("id") Long id);
+
+  @Modifying
+  @Query("delete from Planet p where p.id in :ids")
+  int deleteAllByIds(@Param("ids") Collection<Long> ids);
+
   @Override
   <S extends Planet> List<S> findAll(Example<S> example);
 }
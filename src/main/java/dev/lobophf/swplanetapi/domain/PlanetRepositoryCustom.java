@@ -0,0 +1,42 @@
+package dev.lobophf.swplanetapi.domain;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import org.springframework.data.jpa.domain.Specification;
+
+public interface PlanetRepositoryCustom {
+  Optional<Planet> findViewById(Long id);
+
+  Optional<Planet> findViewByName(String name);
+
+  List<Planet> findViews(Specification<Planet> filter);
+
+  List<Long> findIds(Specification<Planet> filter);
+
+  List<Planet> findViewsByNamePrefix(String prefix, int limit);
+
+  List<Planet> findPage(Specification<Planet> filter, Long after, int limit);
+
+  Stream<Planet> stream(Specification<Planet> filter);
+
+  Stream<Planet> stream(Specification<Planet> filter, Long after);
+
+  List<PlanetBatchResult> upsertAll(List<Planet> planets);
+
+  void flushAndClear();
+
+  List<PlanetFacet> findFacets();
+
+  void addFacets(Collection<Long> planetIds);
+
+  void removeFacets(Collection<Long> planetIds);
+
+  List<Long> lockIds(Collection<Long> ids);
+
+  boolean rebuildFacetsIfEmpty();
+
+  void appendChanges(List<PlanetChange> changes);
+}
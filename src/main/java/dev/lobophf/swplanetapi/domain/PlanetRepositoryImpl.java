@@ -0,0 +1,311 @@
+package dev.lobophf.swplanetapi.domain;
+
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.PersistenceContext;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Expression;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+
+import org.hibernate.dialect.Dialect;
+import org.hibernate.dialect.H2Dialect;
+import org.hibernate.dialect.MySQLDialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.id.IdentifierGenerator;
+import org.hibernate.jpa.QueryHints;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.transaction.annotation.Transactional;
+
+// Reads select into new Planet instances through a constructor expression, so
+// the rows are never hydrated as managed entities nor snapshotted for dirty checking.
+class PlanetRepositoryImpl implements PlanetRepositoryCustom {
+  static final int STREAM_FETCH_SIZE = 500;
+
+  // The version is only bumped when the values change, so re-sending a planet
+  // leaves its ETag alone and upsertAll can report it as unchanged.
+  private static final String MYSQL_UPSERT = "INSERT INTO planets (id, name, climate, terrain, version) "
+      + "VALUES (?, ?, ?, ?, 0) ON DUPLICATE KEY UPDATE "
+      + "version = IF(climate = VALUES(climate) AND terrain = VALUES(terrain), version, version + 1), "
+      + "climate = VALUES(climate), terrain = VALUES(terrain)";
+
+  private static final String H2_UPSERT = "MERGE INTO planets t USING (VALUES (CAST(? AS BIGINT), "
+      + "CAST(? AS VARCHAR(255)), CAST(? AS VARCHAR(255)), CAST(? AS VARCHAR(255)))) s (id, name, climate, terrain) "
+      + "ON t.name = s.name "
+      + "WHEN MATCHED AND (t.climate <> s.climate OR t.terrain <> s.terrain) THEN "
+      + "UPDATE SET climate = s.climate, terrain = s.terrain, version = t.version + 1 "
+      + "WHEN NOT MATCHED THEN "
+      + "INSERT (id, name, climate, terrain, version) VALUES (s.id, s.name, s.climate, s.terrain, 0)";
+
+  // Locking in id order keeps two deletes of overlapping sets from deadlocking.
+  private static final String LOCK_IDS = "SELECT id FROM planets WHERE id IN (:ids) ORDER BY id FOR UPDATE";
+
+  @PersistenceContext
+  private EntityManager entityManager;
+
+  private final boolean mySql;
+
+  // The facet and upsert statements are native, so an unsupported database is
+  // refused at startup rather than on the first write.
+  PlanetRepositoryImpl(EntityManagerFactory entityManagerFactory) {
+    Dialect dialect = entityManagerFactory.unwrap(SessionFactoryImplementor.class).getJdbcServices().getDialect();
+    if (!(dialect instanceof MySQLDialect) && !(dialect instanceof H2Dialect)) {
+      throw new IllegalStateException("Planet facet counts and upserts need MySQL or H2, not " + dialect);
+    }
+    this.mySql = dialect instanceof MySQLDialect;
+  }
+
+  @Override
+  @Transactional(readOnly = true)
+  public Optional<Planet> findViewById(Long id) {
+    return findView((root, query, builder) -> builder.equal(root.get("id"), id));
+  }
+
+  @Override
+  @Transactional(readOnly = true)
+  public Optional<Planet> findViewByName(String name) {
+    return findView((root, query, builder) -> builder.equal(root.get("name"), name));
+  }
+
+  @Override
+  @Transactional(readOnly = true)
+  public List<Planet> findViews(Specification<Planet> filter) {
+    return entityManager.createQuery(selectViews(filter, null)).getResultList();
+  }
+
+  // Ignores case but not accents, unless the column's collation does.
+  @Override
+  @Transactional(readOnly = true)
+  public List<Planet> findViewsByNamePrefix(String prefix, int limit) {
+    CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+    CriteriaQuery<Planet> query = builder.createQuery(Planet.class);
+    Root<Planet> root = query.from(Planet.class);
+    Expression<String> name = builder.lower(root.get("name"));
+    // '!' rather than a backslash, which MySQL would read as escaping the quote.
+    String pattern = normalizeName(prefix).replace("!", "!!").replace("%", "!%").replace("_", "!_") + "%";
+    query.select(builder.construct(Planet.class,
+        root.get("id"), root.get("name"), root.get("climate"), root.get("terrain"), root.get("version")))
+        .where(builder.like(name, pattern, '!'))
+        .orderBy(builder.asc(name), builder.asc(root.get("id")));
+    return entityManager.createQuery(query).setMaxResults(limit).getResultList();
+  }
+
+  @Override
+  @Transactional(readOnly = true)
+  public List<Long> findIds(Specification<Planet> filter) {
+    CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+    CriteriaQuery<Long> query = builder.createQuery(Long.class);
+    Root<Planet> root = query.from(Planet.class);
+    query.select(root.get("id"));
+
+    Predicate filterPredicate = filter.toPredicate(root, query, builder);
+    if (filterPredicate != null) {
+      query.where(filterPredicate);
+    }
+    return entityManager.createQuery(query).getResultList();
+  }
+
+  @Override
+  @Transactional(readOnly = true)
+  public List<Planet> findPage(Specification<Planet> filter, Long after, int limit) {
+    return entityManager.createQuery(selectViews(filter, after)).setMaxResults(limit).getResultList();
+  }
+
+  @Override
+  public Stream<Planet> stream(Specification<Planet> filter) {
+    return stream(filter, null);
+  }
+
+  @Override
+  public Stream<Planet> stream(Specification<Planet> filter, Long after) {
+    return entityManager.createQuery(selectViews(filter, after))
+        .setHint(QueryHints.HINT_FETCH_SIZE, STREAM_FETCH_SIZE)
+        .getResultStream();
+  }
+
+  @Override
+  public List<PlanetBatchResult> upsertAll(List<Planet> planets) {
+    entityManager.flush();
+    SessionImplementor session = entityManager.unwrap(SessionImplementor.class);
+    String upsert = mySql ? MYSQL_UPSERT : H2_UPSERT;
+
+    // Ids are drawn from the pooled generator up front; the ones belonging to rows
+    // that already existed are simply left unused.
+    IdentifierGenerator idGenerator = session.getFactory().getMetamodel().entityPersister(Planet.class)
+        .getIdentifierGenerator();
+    List<Long> newIds = new ArrayList<>(planets.size());
+    for (Planet planet : planets) {
+      newIds.add((Long) idGenerator.generate(session, planet));
+    }
+
+    // Update counts cannot tell an identical row from a changed one: Connector/J
+    // counts matched rows rather than changed ones unless useAffectedRows is set.
+    // The stored versions are compared instead.
+    List<String> names = planets.stream().map(Planet::getName).collect(Collectors.toList());
+    Function<String, Planet> previous = byName(findViewsByNames(names));
+
+    session.doWork(connection -> {
+      try (PreparedStatement statement = connection.prepareStatement(upsert)) {
+        for (int i = 0; i < planets.size(); i++) {
+          Planet planet = planets.get(i);
+          statement.setLong(1, newIds.get(i));
+          statement.setString(2, planet.getName());
+          statement.setString(3, planet.getClimate());
+          statement.setString(4, planet.getTerrain());
+          statement.addBatch();
+        }
+        statement.executeBatch();
+      }
+    });
+
+    Function<String, Planet> stored = byName(findViewsByNames(names));
+    List<PlanetBatchResult> results = new ArrayList<>(planets.size());
+    List<Long> updatedIds = new ArrayList<>();
+    for (int i = 0; i < planets.size(); i++) {
+      Planet planet = stored.apply(planets.get(i).getName());
+      Planet before = previous.apply(planets.get(i).getName());
+      if (planet.getId().equals(newIds.get(i))) {
+        results.add(PlanetBatchResult.created(i, planet));
+      } else if (before != null && before.getId().equals(planet.getId())
+          && Objects.equals(before.getVersion(), planet.getVersion())) {
+        results.add(new PlanetBatchResult(i, PlanetBatchResult.Status.UNCHANGED, planet));
+      } else {
+        updatedIds.add(planet.getId());
+        results.add(new PlanetBatchResult(i, PlanetBatchResult.Status.UPDATED, planet));
+      }
+    }
+
+    if (!updatedIds.isEmpty()) {
+      removeFacets(updatedIds);
+      entityManager.createQuery("delete from PlanetToken t where t.planet.id in :ids")
+          .setParameter("ids", updatedIds)
+          .executeUpdate();
+    }
+    List<Planet> changed = results.stream()
+        .filter(result -> result.getStatus() != PlanetBatchResult.Status.UNCHANGED)
+        .map(PlanetBatchResult::getPlanet)
+        .collect(Collectors.toList());
+    changed.forEach(this::persistTokens);
+    addFacets(changed.stream().map(Planet::getId).collect(Collectors.toList()));
+    return results;
+  }
+
+  @Override
+  public void flushAndClear() {
+    entityManager.flush();
+    entityManager.clear();
+  }
+
+  @Override
+  @Transactional(readOnly = true)
+  public List<PlanetFacet> findFacets() {
+    return entityManager.createQuery("select f from PlanetFacet f where f.planetCount > 0 "
+        + "order by f.kind, f.planetCount desc, f.token", PlanetFacet.class)
+        .getResultList();
+  }
+
+  @Override
+  public void addFacets(Collection<Long> planetIds) {
+    adjustFacets(planetIds, PlanetFacet.MYSQL_ADD, PlanetFacet.H2_ADD);
+  }
+
+  @Override
+  public void removeFacets(Collection<Long> planetIds) {
+    adjustFacets(planetIds, PlanetFacet.MYSQL_REMOVE, PlanetFacet.H2_REMOVE);
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public List<Long> lockIds(Collection<Long> ids) {
+    if (ids.isEmpty()) {
+      return List.of();
+    }
+    List<Number> locked = entityManager.createNativeQuery(LOCK_IDS).setParameter("ids", ids).getResultList();
+    return locked.stream().map(Number::longValue).collect(Collectors.toList());
+  }
+
+  @Override
+  public boolean rebuildFacetsIfEmpty() {
+    Long facets = entityManager.createQuery("select count(f) from PlanetFacet f", Long.class).getSingleResult();
+    if (facets > 0) {
+      return false;
+    }
+    entityManager.createNativeQuery(PlanetFacet.REBUILD).executeUpdate();
+    return true;
+  }
+
+  @Override
+  public void appendChanges(List<PlanetChange> changes) {
+    changes.forEach(entityManager::persist);
+  }
+
+  private void adjustFacets(Collection<Long> planetIds, String mySqlStatement, String h2Statement) {
+    if (planetIds.isEmpty()) {
+      return;
+    }
+    entityManager.flush();
+    entityManager.createNativeQuery(mySql ? mySqlStatement : h2Statement).setParameter("ids", planetIds)
+        .executeUpdate();
+  }
+
+  private List<Planet> findViewsByNames(List<String> names) {
+    return entityManager.createQuery(selectViews((root, query, builder) -> root.get("name").in(names), null))
+        .getResultList();
+  }
+
+  // Case-insensitive collations match "tatooine" against a stored "Tatooine".
+  private static Function<String, Planet> byName(List<Planet> planets) {
+    Map<String, Planet> byName = planets.stream().collect(Collectors.toMap(Planet::getName, Function.identity()));
+    Map<String, Planet> byNormalizedName = planets.stream()
+        .collect(Collectors.toMap(planet -> normalizeName(planet.getName()), Function.identity(), (first, second) -> first));
+    return name -> byName.getOrDefault(name, byNormalizedName.get(normalizeName(name)));
+  }
+
+  private Optional<Planet> findView(Specification<Planet> filter) {
+    return entityManager.createQuery(selectViews(filter, null)).setMaxResults(1).getResultList().stream().findFirst();
+  }
+
+  private void persistTokens(Planet planet) {
+    Planet reference = entityManager.getReference(Planet.class, planet.getId());
+    PlanetToken.tokenize(planet.getTerrain()).forEach(
+        token -> entityManager.persist(new PlanetToken(reference, PlanetToken.Kind.TERRAIN, token)));
+    PlanetToken.tokenize(planet.getClimate()).forEach(
+        token -> entityManager.persist(new PlanetToken(reference, PlanetToken.Kind.CLIMATE, token)));
+  }
+
+  private static String normalizeName(String name) {
+    return name.toLowerCase(Locale.ROOT);
+  }
+
+  private CriteriaQuery<Planet> selectViews(Specification<Planet> filter, Long after) {
+    CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+    CriteriaQuery<Planet> query = builder.createQuery(Planet.class);
+    Root<Planet> root = query.from(Planet.class);
+    query.select(builder.construct(Planet.class,
+        root.get("id"), root.get("name"), root.get("climate"), root.get("terrain"), root.get("version")));
+
+    List<Predicate> predicates = new ArrayList<>();
+    Predicate filterPredicate = filter.toPredicate(root, query, builder);
+    if (filterPredicate != null) {
+      predicates.add(filterPredicate);
+    }
+    if (after != null) {
+      predicates.add(builder.greaterThan(root.get("id"), after));
+    }
+    return query.where(predicates.toArray(new Predicate[0])).orderBy(builder.asc(root.get("id")));
+  }
+}
@@ -1,37 +1,300 @@
 package dev.lobophf.swplanetapi.domain;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
-import org.springframework.data.domain.Example;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 @Service
+@Profile("!reactive")
 public class PlanetService {
   private PlanetRepository planetRepository;
+  private PlanetCache planetCache;
+  private CatalogVersionRepository catalogVersionRepository;
+  private PlanetIndex planetIndex;
+  private PlanetNameIndex planetNameIndex;
+  private ApplicationEventPublisher eventPublisher;
+  private SingleFlight<Long, Optional<Planet>> lookupsById = new SingleFlight<>();
+  private SingleFlight<String, Optional<Planet>> lookupsByName = new SingleFlight<>();
 
-  public PlanetService(PlanetRepository planetRepository) {
+  @Value("${planets.batch.size:50}")
+  private int batchSize = 50;
+
+  @Value("${planets.lookup.chunk-size:100}")
+  private int lookupChunkSize = 100;
+
+  @Value("${planets.single-flight.timeout:2s}")
+  private Duration singleFlightTimeout = Duration.ofSeconds(2);
+
+  public PlanetService(PlanetRepository planetRepository, PlanetCache planetCache,
+      CatalogVersionRepository catalogVersionRepository, PlanetIndex planetIndex, PlanetNameIndex planetNameIndex,
+      ApplicationEventPublisher eventPublisher) {
     this.planetRepository = planetRepository;
+    this.planetCache = planetCache;
+    this.catalogVersionRepository = catalogVersionRepository;
+    this.planetIndex = planetIndex;
+    this.planetNameIndex = planetNameIndex;
+    this.eventPublisher = eventPublisher;
   }
 
+  @Transactional
   public Planet create(Planet planet) {
-    return planetRepository.save(planet);
+    Planet planetCreated = planetRepository.save(planet);
+    planetRepository.addFacets(Collections.singletonList(planetCreated.getId()));
+    long version = logChanges(List.of(planetCreated), List.of());
+    eventPublisher.publishEvent(PlanetChangeEvent.saved(version, List.of(planetCreated)));
+    return planetCreated;
+  }
+
+  @Transactional
+  public List<PlanetBatchResult> createAll(List<Planet> planets) {
+    List<PlanetBatchResult> results = new ArrayList<>(planets.size());
+    List<Planet> created = new ArrayList<>();
+    Set<String> seenNames = new HashSet<>();
+
+    for (int start = 0; start < planets.size(); start += batchSize) {
+      List<Planet> chunk = planets.subList(start, Math.min(start + batchSize, planets.size()));
+      Set<String> existingNames = planetRepository
+          .findNamesIn(chunk.stream().map(Planet::getName).collect(Collectors.toSet()))
+          .stream().map(PlanetService::normalizeName).collect(Collectors.toSet());
+
+      List<Long> createdIds = new ArrayList<>();
+      for (int i = 0; i < chunk.size(); i++) {
+        Planet planet = chunk.get(i);
+        String name = normalizeName(planet.getName());
+        if (existingNames.contains(name) || !seenNames.add(name)) {
+          results.add(PlanetBatchResult.conflict(start + i, planet));
+        } else {
+          Planet planetCreated = planetRepository.save(planet);
+          created.add(planetCreated);
+          createdIds.add(planetCreated.getId());
+          results.add(PlanetBatchResult.created(start + i, planetCreated));
+        }
+      }
+      planetRepository.addFacets(createdIds);
+      planetRepository.flushAndClear();
+    }
+    long version = logChanges(created, List.of());
+    eventPublisher.publishEvent(PlanetChangeEvent.saved(version, created));
+    return results;
+  }
+
+  @Transactional
+  public PlanetBatchResult upsert(Planet planet) {
+    return upsertAll(List.of(planet)).get(0);
+  }
+
+  @Transactional
+  public List<PlanetBatchResult> upsertAll(List<Planet> planets) {
+    List<PlanetBatchResult> results = new ArrayList<>(Collections.nCopies(planets.size(), null));
+    List<Integer> accepted = new ArrayList<>();
+    Set<String> seenNames = new HashSet<>();
+    for (int i = 0; i < planets.size(); i++) {
+      if (seenNames.add(normalizeName(planets.get(i).getName()))) {
+        accepted.add(i);
+      } else {
+        results.set(i, PlanetBatchResult.conflict(i, planets.get(i)));
+      }
+    }
+
+    List<Planet> changed = new ArrayList<>();
+    for (int start = 0; start < accepted.size(); start += batchSize) {
+      List<Integer> chunk = accepted.subList(start, Math.min(start + batchSize, accepted.size()));
+      List<PlanetBatchResult> upserted = planetRepository
+          .upsertAll(chunk.stream().map(planets::get).collect(Collectors.toList()));
+
+      for (int i = 0; i < chunk.size(); i++) {
+        PlanetBatchResult result = upserted.get(i);
+        results.set(chunk.get(i), new PlanetBatchResult(chunk.get(i), result.getStatus(), result.getPlanet()));
+        if (result.getStatus() != PlanetBatchResult.Status.UNCHANGED) {
+          changed.add(result.getPlanet());
+        }
+      }
+      planetRepository.flushAndClear();
+    }
+    if (!changed.isEmpty()) {
+      long version = logChanges(changed, List.of());
+      eventPublisher.publishEvent(PlanetChangeEvent.saved(version, changed));
+    }
+    return results;
   }
 
   public Optional<Planet> get(Long id) {
-    return planetRepository.findById(id);
+    return planetCache.get(id,
+        key -> lookupsById.load(key, planetRepository::findViewById, singleFlightTimeout));
   }
 
   public Optional<Planet> getByName(String name) {
-    return planetRepository.findByName(name);
+    return planetCache.getByName(name,
+        key -> lookupsByName.load(key, planetRepository::findViewByName, singleFlightTimeout));
+  }
+
+  public PlanetLookup lookup(List<Long> ids) {
+    List<Long> distinctIds = ids.stream().distinct().collect(Collectors.toList());
+    Map<Long, Planet> found = planetCache.getAll(distinctIds, this::findByIds);
+
+    List<Planet> planets = new ArrayList<>(found.size());
+    List<Long> missingIds = new ArrayList<>();
+    for (Long id : distinctIds) {
+      Planet planet = found.get(id);
+      if (planet == null) {
+        missingIds.add(id);
+      } else {
+        planets.add(planet);
+      }
+    }
+    return new PlanetLookup(planets, missingIds);
+  }
+
+  public long catalogVersion() {
+    return catalogVersionRepository.findById(CatalogVersion.PLANETS).map(CatalogVersion::getVersion).orElse(0L);
   }
 
+  @Transactional(readOnly = true)
   public List<Planet> list(String terrain, String climate) {
-    Example<Planet> query = QueryBuilder.makeQuery(new Planet(climate, terrain));
-    return planetRepository.findAll(query);
+    return list(terrain, climate, catalogVersion());
+  }
+
+  @Transactional(readOnly = true)
+  public List<Planet> listExact(String terrain, String climate) {
+    return planetRepository.findViews(QueryBuilder.makeSpecification(new Planet(climate, terrain)));
+  }
+
+  @Transactional(readOnly = true)
+  public List<Planet> list(String terrain, String climate, boolean exact, Long after, int limit) {
+    return planetRepository.findPage(QueryBuilder.makeSpecification(terrain, climate, exact), after, limit);
+  }
+
+  // The version and the planets are read in one read-only transaction, so on
+  // the same data source: with replicas, a body older than its version could
+  // otherwise be cached by clients under that ETag and confirmed by later 304s.
+  @Transactional(readOnly = true)
+  public PlanetListing listing(String terrain, String climate, boolean exact) {
+    long version = catalogVersion();
+    return new PlanetListing(version, exact ? listExact(terrain, climate) : list(terrain, climate, version));
+  }
+
+  @Transactional(readOnly = true)
+  public PlanetListing listing(String terrain, String climate, boolean exact, Long after, int limit) {
+    long version = catalogVersion();
+    return new PlanetListing(version, list(terrain, climate, exact, after, limit));
+  }
+
+  @Transactional(readOnly = true)
+  public void stream(String terrain, String climate, boolean exact, Consumer<Planet> consumer) {
+    stream(terrain, climate, exact, null, consumer);
+  }
+
+  @Transactional(readOnly = true)
+  public void stream(String terrain, String climate, boolean exact, Long after, Consumer<Planet> consumer) {
+    try (Stream<Planet> planets = planetRepository.stream(QueryBuilder.makeSpecification(terrain, climate, exact),
+        after)) {
+      planets.forEach(consumer);
+    }
+  }
+
+  // Like list, falls back to the database until the index has caught up.
+  @Transactional(readOnly = true)
+  public List<Planet> search(String prefix, int limit) {
+    if (planetNameIndex.isReady() && planetNameIndex.getVersion() >= catalogVersion()) {
+      return planetNameIndex.search(prefix, limit);
+    }
+    return planetRepository.findViewsByNamePrefix(prefix, limit);
+  }
+
+  @Transactional(readOnly = true)
+  public Map<String, Map<String, Long>> facets() {
+    Map<String, Map<String, Long>> facets = new LinkedHashMap<>();
+    for (PlanetToken.Kind kind : PlanetToken.Kind.values()) {
+      facets.put(kind.name().toLowerCase(Locale.ROOT), new LinkedHashMap<>());
+    }
+    for (PlanetFacet facet : planetRepository.findFacets()) {
+      facets.get(facet.getKind().name().toLowerCase(Locale.ROOT)).put(facet.getToken(), facet.getPlanetCount());
+    }
+    return facets;
+  }
+
+  // The rows are locked before their facets are decremented, so of two
+  // concurrent deletes of the same planet only the one that finds it adjusts
+  // the counts.
+  @Transactional
+  public boolean remove(Long id) {
+    if (planetRepository.lockIds(List.of(id)).isEmpty()) {
+      return false;
+    }
+    planetRepository.removeFacets(List.of(id));
+    planetRepository.deleteOne(id);
+    long version = logChanges(List.of(), List.of(id));
+    eventPublisher.publishEvent(PlanetChangeEvent.removed(version, List.of(id)));
+    return true;
+  }
+
+  @Transactional
+  public int removeAll(Collection<Long> ids) {
+    List<Long> existing = planetRepository.lockIds(ids);
+    if (existing.isEmpty()) {
+      return 0;
+    }
+    planetRepository.removeFacets(existing);
+    int removed = planetRepository.deleteAllByIds(existing);
+    long version = logChanges(List.of(), existing);
+    eventPublisher.publishEvent(PlanetChangeEvent.removed(version, existing));
+    return removed;
+  }
+
+  @Transactional
+  public int removeAll(String terrain, String climate, boolean exact) {
+    List<Long> ids = planetRepository.findIds(QueryBuilder.makeSpecification(terrain, climate, exact));
+    return removeAll(ids);
+  }
+
+  // The index only answers once it has caught up with the catalog version, so
+  // writes on other instances are never hidden behind it.
+  private List<Planet> list(String terrain, String climate, long version) {
+    if (planetIndex.isReady() && planetIndex.getVersion() >= version) {
+      return planetIndex.find(terrain, climate);
+    }
+    return planetRepository.findViews(QueryBuilder.makeTokenSpecification(terrain, climate));
+  }
+
+  // Bumps the catalog version and records the changes under the new version,
+  // which is returned.
+  private long logChanges(List<Planet> saved, Collection<Long> removedIds) {
+    catalogVersionRepository.increment(CatalogVersion.PLANETS);
+    long sequence = catalogVersionRepository.findVersion(CatalogVersion.PLANETS);
+    List<PlanetChange> changes = new ArrayList<>(saved.size() + removedIds.size());
+    saved.forEach(planet -> changes.add(PlanetChange.saved(sequence, planet)));
+    removedIds.stream().distinct().forEach(id -> changes.add(PlanetChange.removed(sequence, id)));
+    planetRepository.appendChanges(changes);
+    return sequence;
+  }
+
+  private List<Planet> findByIds(List<Long> ids) {
+    List<Planet> planets = new ArrayList<>(ids.size());
+    for (int start = 0; start < ids.size(); start += lookupChunkSize) {
+      List<Long> chunk = ids.subList(start, Math.min(start + lookupChunkSize, ids.size()));
+      planets.addAll(planetRepository.findViewsByIds(chunk));
+    }
+    return planets;
   }
 
-  public void remove(Long id) {
-    planetRepository.deleteById(id);
+  private static String normalizeName(String name) {
+    return name.toLowerCase(Locale.ROOT);
   }
 }
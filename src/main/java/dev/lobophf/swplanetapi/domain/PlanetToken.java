@@ -0,0 +1,86 @@
+package dev.lobophf.swplanetapi.domain;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Collectors;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.EnumType;
+import javax.persistence.Enumerated;
+import javax.persistence.FetchType;
+import javax.persistence.GeneratedValue;
+import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.JoinColumn;
+import javax.persistence.ManyToOne;
+import javax.persistence.Table;
+
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+
+@Entity
+@Table(name = "planet_tokens", indexes = @Index(name = "idx_planet_tokens_kind_token", columnList = "kind, token"))
+public class PlanetToken {
+  public enum Kind {
+    TERRAIN, CLIMATE
+  }
+
+  @Id
+  @GeneratedValue(generator = "planet_token_id")
+  @GenericGenerator(name = "planet_token_id", strategy = "enhanced-sequence", parameters = {
+      @Parameter(name = "sequence_name", value = "planet_tokens_seq"),
+      @Parameter(name = "increment_size", value = "50"),
+      @Parameter(name = "optimizer", value = "pooled"),
+      @Parameter(name = "force_table_use", value = "true")
+  })
+  private Long id;
+
+  @ManyToOne(fetch = FetchType.LAZY, optional = false)
+  @JoinColumn(name = "planet_id", nullable = false)
+  private Planet planet;
+
+  @Enumerated(EnumType.STRING)
+  @Column(nullable = false, length = 16)
+  private Kind kind;
+
+  @Column(nullable = false)
+  private String token;
+
+  public PlanetToken() {
+  }
+
+  public PlanetToken(Planet planet, Kind kind, String token) {
+    this.planet = planet;
+    this.kind = kind;
+    this.token = token;
+  }
+
+  public static List<String> tokenize(String value) {
+    if (value == null) {
+      return List.of();
+    }
+    return Arrays.stream(value.split(","))
+        .map(token -> token.trim().toLowerCase(Locale.ROOT))
+        .filter(token -> !token.isEmpty())
+        .distinct()
+        .collect(Collectors.toList());
+  }
+
+  public Long getId() {
+    return id;
+  }
+
+  public Planet getPlanet() {
+    return planet;
+  }
+
+  public Kind getKind() {
+    return kind;
+  }
+
+  public String getToken() {
+    return token;
+  }
+}
@@ -0,0 +1,40 @@
+package dev.lobophf.swplanetapi.domain;
+
+import java.util.List;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+@Component
+public class PlanetTokenBackfill {
+  private static final int PAGE_SIZE = 500;
+
+  private final PlanetRepository planetRepository;
+  private final TransactionTemplate transactionTemplate;
+
+  public PlanetTokenBackfill(PlanetRepository planetRepository, TransactionTemplate transactionTemplate) {
+    this.planetRepository = planetRepository;
+    this.transactionTemplate = transactionTemplate;
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void backfill() {
+    Long after = 0L;
+    while (after != null) {
+      after = backfillPage(after);
+    }
+    // Seeds the facet counts of a catalog that predates them.
+    transactionTemplate.executeWithoutResult(status -> planetRepository.rebuildFacetsIfEmpty());
+  }
+
+  private Long backfillPage(Long after) {
+    return transactionTemplate.execute(status -> {
+      List<Planet> planets = planetRepository.findUntokenized(after, PageRequest.of(0, PAGE_SIZE));
+      planets.forEach(Planet::syncTokens);
+      return planets.size() < PAGE_SIZE ? null : planets.get(planets.size() - 1).getId();
+    });
+  }
+}
@@ -1,7 +1,18 @@
 package dev.lobophf.swplanetapi.domain;
 
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.persistence.criteria.CommonAbstractCriteria;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import javax.persistence.criteria.Subquery;
+
 import org.springframework.data.domain.Example;
 import org.springframework.data.domain.ExampleMatcher;
+import org.springframework.data.jpa.convert.QueryByExamplePredicateBuilder;
+import org.springframework.data.jpa.domain.Specification;
 
 public class QueryBuilder {
 	private QueryBuilder() {
@@ -11,4 +22,44 @@ public class QueryBuilder {
 		ExampleMatcher exampleMatcher = ExampleMatcher.matchingAll().withIgnoreCase().withIgnoreNullValues();
 		return Example.of(planet, exampleMatcher);
 	}
+
+	public static Specification<Planet> makeSpecification(Planet planet) {
+		Example<Planet> example = makeQuery(planet);
+		return (root, query, builder) -> QueryByExamplePredicateBuilder.getPredicate(root, builder, example);
+	}
+
+	public static Specification<Planet> makeTokenSpecification(String terrain, String climate) {
+		return (root, query, builder) -> makeTokenPredicate(root, query, builder, terrain, climate);
+	}
+
+	public static Specification<Planet> makeSpecification(String terrain, String climate, boolean exact) {
+		return exact ? makeSpecification(new Planet(climate, terrain)) : makeTokenSpecification(terrain, climate);
+	}
+
+	public static Predicate makeTokenPredicate(Root<Planet> root, CommonAbstractCriteria query, CriteriaBuilder builder,
+			String terrain, String climate) {
+		List<Predicate> predicates = new ArrayList<>();
+		if (terrain != null) {
+			predicates.add(hasAnyToken(root, query, builder, PlanetToken.Kind.TERRAIN, terrain));
+		}
+		if (climate != null) {
+			predicates.add(hasAnyToken(root, query, builder, PlanetToken.Kind.CLIMATE, climate));
+		}
+		return predicates.isEmpty() ? null : builder.and(predicates.toArray(new Predicate[0]));
+	}
+
+	private static Predicate hasAnyToken(Root<Planet> root, CommonAbstractCriteria query, CriteriaBuilder builder,
+			PlanetToken.Kind kind, String value) {
+		List<String> tokens = PlanetToken.tokenize(value);
+		if (tokens.isEmpty()) {
+			return builder.disjunction();
+		}
+		Subquery<Long> subquery = query.subquery(Long.class);
+		Root<PlanetToken> token = subquery.from(PlanetToken.class);
+		subquery.select(token.get("id")).where(
+				builder.equal(token.get("planet"), root),
+				builder.equal(token.get("kind"), kind),
+				token.get("token").in(tokens));
+		return builder.exists(subquery);
+	}
 }
@@ -0,0 +1,15 @@
+package dev.lobophf.swplanetapi.domain;
+
+public class ResyncRequiredException extends RuntimeException {
+  private final long version;
+
+  public ResyncRequiredException(long since, long version) {
+    super(String.format("Changes after %d are no longer retained, reload the catalog and continue from %d", since,
+        version));
+    this.version = version;
+  }
+
+  public long getVersion() {
+    return version;
+  }
+}
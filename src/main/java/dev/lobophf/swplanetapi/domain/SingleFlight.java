@@ -0,0 +1,48 @@
+package dev.lobophf.swplanetapi.domain;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+
+// Concurrent loads of the same key share the call that started first. Callers
+// that arrive later wait at most the given timeout for it and then load on
+// their own, so a stuck call cannot hold every request for that key.
+public class SingleFlight<K, V> {
+  private final ConcurrentMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+
+  public V load(K key, Function<K, V> loader, Duration timeout) {
+    CompletableFuture<V> flight = new CompletableFuture<>();
+    CompletableFuture<V> existing = inFlight.putIfAbsent(key, flight);
+    if (existing == null) {
+      try {
+        V value = loader.apply(key);
+        flight.complete(value);
+        return value;
+      } catch (RuntimeException | Error ex) {
+        flight.completeExceptionally(ex);
+        throw ex;
+      } finally {
+        inFlight.remove(key, flight);
+      }
+    }
+
+    try {
+      return existing.get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+    } catch (TimeoutException ex) {
+      return loader.apply(key);
+    } catch (ExecutionException ex) {
+      if (ex.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) ex.getCause();
+      }
+      throw (Error) ex.getCause();
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while waiting for " + key, ex);
+    }
+  }
+}
@@ -0,0 +1,112 @@
+package dev.lobophf.swplanetapi.metrics;
+
+import java.io.Serializable;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.hibernate.EmptyInterceptor;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.hibernate.type.Type;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+// One instance is shared by every session, so per-request counts live in a
+// thread local that RequestQueryMetricsFilter opens and closes.
+@Component
+public class HibernateMetricsInterceptor extends EmptyInterceptor
+    implements StatementInspector, HibernatePropertiesCustomizer {
+  private static final long serialVersionUID = 1L;
+
+  private final transient ObjectProvider<MeterRegistry> meterRegistry;
+  private final transient ThreadLocal<Counts> counts = new ThreadLocal<>();
+  private final transient ThreadLocal<Long> flushStart = new ThreadLocal<>();
+  private transient volatile Timer flushTimer;
+
+  public HibernateMetricsInterceptor(ObjectProvider<MeterRegistry> meterRegistry) {
+    this.meterRegistry = meterRegistry;
+  }
+
+  @Override
+  public void customize(Map<String, Object> hibernateProperties) {
+    hibernateProperties.put(AvailableSettings.INTERCEPTOR, this);
+    hibernateProperties.put(AvailableSettings.STATEMENT_INSPECTOR, this);
+  }
+
+  public void startCounting() {
+    counts.set(new Counts());
+  }
+
+  public Counts stopCounting() {
+    Counts current = counts.get();
+    counts.remove();
+    return current;
+  }
+
+  @Override
+  public String inspect(String sql) {
+    Counts current = counts.get();
+    if (current != null) {
+      current.statements++;
+    }
+    return sql;
+  }
+
+  @Override
+  public boolean onLoad(Object entity, Serializable id, Object[] state, String[] propertyNames, Type[] types) {
+    Counts current = counts.get();
+    if (current != null) {
+      current.entityLoads++;
+    }
+    return false;
+  }
+
+  @Override
+  public void preFlush(Iterator entities) {
+    flushStart.set(System.nanoTime());
+  }
+
+  @Override
+  public void postFlush(Iterator entities) {
+    Long start = flushStart.get();
+    if (start == null) {
+      return;
+    }
+    flushStart.remove();
+    Timer timer = flushTimer();
+    if (timer != null) {
+      timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+  }
+
+  private Timer flushTimer() {
+    if (flushTimer == null) {
+      MeterRegistry registry = meterRegistry.getIfAvailable();
+      if (registry != null) {
+        flushTimer = Timer.builder("planets.hibernate.flush")
+            .description("Time spent flushing the persistence context")
+            .publishPercentileHistogram()
+            .register(registry);
+      }
+    }
+    return flushTimer;
+  }
+
+  public static class Counts {
+    private int statements;
+    private int entityLoads;
+
+    public int getStatements() {
+      return statements;
+    }
+
+    public int getEntityLoads() {
+      return entityLoads;
+    }
+  }
+}
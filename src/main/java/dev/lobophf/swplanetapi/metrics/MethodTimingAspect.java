@@ -0,0 +1,46 @@
+package dev.lobophf.swplanetapi.metrics;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+@Aspect
+@Component
+public class MethodTimingAspect {
+  private final MeterRegistry meterRegistry;
+
+  public MethodTimingAspect(MeterRegistry meterRegistry) {
+    this.meterRegistry = meterRegistry;
+  }
+
+  @Around("execution(public * dev.lobophf.swplanetapi.domain.PlanetService.*(..))")
+  public Object timeService(ProceedingJoinPoint joinPoint) throws Throwable {
+    return time("planets.service", joinPoint);
+  }
+
+  @Around("execution(public * *(..)) && this(dev.lobophf.swplanetapi.domain.PlanetRepository)")
+  public Object timeRepository(ProceedingJoinPoint joinPoint) throws Throwable {
+    return time("planets.repository", joinPoint);
+  }
+
+  private Object time(String name, ProceedingJoinPoint joinPoint) throws Throwable {
+    Timer.Sample sample = Timer.start(meterRegistry);
+    String exception = "none";
+    try {
+      return joinPoint.proceed();
+    } catch (Throwable ex) {
+      exception = ex.getClass().getSimpleName();
+      throw ex;
+    } finally {
+      sample.stop(Timer.builder(name)
+          .tag("method", joinPoint.getSignature().getName())
+          .tag("exception", exception)
+          .publishPercentileHistogram()
+          .register(meterRegistry));
+    }
+  }
+}
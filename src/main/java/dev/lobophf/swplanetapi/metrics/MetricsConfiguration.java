@@ -0,0 +1,16 @@
+package dev.lobophf.swplanetapi.metrics;
+
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+@Configuration
+public class MetricsConfiguration {
+  @Bean
+  public FilterRegistrationBean<RequestQueryMetricsFilter> requestQueryMetricsFilter(
+      HibernateMetricsInterceptor interceptor, MeterRegistry meterRegistry) {
+    return new FilterRegistrationBean<>(new RequestQueryMetricsFilter(interceptor, meterRegistry));
+  }
+}
@@ -0,0 +1,58 @@
+package dev.lobophf.swplanetapi.metrics;
+
+import java.io.IOException;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+
+public class RequestQueryMetricsFilter extends OncePerRequestFilter {
+  private final HibernateMetricsInterceptor interceptor;
+  private final MeterRegistry meterRegistry;
+
+  public RequestQueryMetricsFilter(HibernateMetricsInterceptor interceptor, MeterRegistry meterRegistry) {
+    this.interceptor = interceptor;
+    this.meterRegistry = meterRegistry;
+  }
+
+  @Override
+  protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+      throws ServletException, IOException {
+    interceptor.startCounting();
+    try {
+      filterChain.doFilter(request, response);
+    } finally {
+      HibernateMetricsInterceptor.Counts counts = interceptor.stopCounting();
+      // Streams, exports and the change feed query on other threads after this
+      // returns, so their counts would miss those statements.
+      if (!request.isAsyncStarted()) {
+        record(request, counts);
+      }
+    }
+  }
+
+  private void record(HttpServletRequest request, HibernateMetricsInterceptor.Counts counts) {
+    Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+    String uri = pattern == null ? "UNKNOWN" : pattern.toString();
+    summary("planets.http.statements", "JDBC statements prepared per request", request, uri)
+        .record(counts.getStatements());
+    summary("planets.http.entity.loads", "Entities loaded per request", request, uri)
+        .record(counts.getEntityLoads());
+  }
+
+  private DistributionSummary summary(String name, String description, HttpServletRequest request, String uri) {
+    return DistributionSummary.builder(name)
+        .description(description)
+        .tag("method", request.getMethod())
+        .tag("uri", uri)
+        .publishPercentileHistogram()
+        .register(meterRegistry);
+  }
+}
@@ -0,0 +1,42 @@
+package dev.lobophf.swplanetapi.reactive;
+
+import org.springframework.boot.web.codec.CodecCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.codec.cbor.Jackson2CborDecoder;
+import org.springframework.http.codec.cbor.Jackson2CborEncoder;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.r2dbc.connection.R2dbcTransactionManager;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.transaction.reactive.TransactionalOperator;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+
+import io.r2dbc.spi.ConnectionFactory;
+
+// The R2DBC transaction manager is deliberately not a bean: the JPA one stays
+// the only TransactionManager, so @Transactional keeps resolving to it.
+@Configuration
+@Profile("reactive")
+public class ReactiveConfiguration {
+  @Bean
+  public DatabaseClient databaseClient(ConnectionFactory connectionFactory) {
+    return DatabaseClient.create(connectionFactory);
+  }
+
+  @Bean
+  public TransactionalOperator reactiveTransactionalOperator(ConnectionFactory connectionFactory) {
+    return TransactionalOperator.create(new R2dbcTransactionManager(connectionFactory));
+  }
+
+  @Bean
+  public CodecCustomizer cborCodecCustomizer(Jackson2ObjectMapperBuilder objectMapperBuilder) {
+    ObjectMapper objectMapper = objectMapperBuilder.factory(new CBORFactory()).build();
+    return configurer -> {
+      configurer.customCodecs().register(new Jackson2CborEncoder(objectMapper));
+      configurer.customCodecs().register(new Jackson2CborDecoder(objectMapper));
+    };
+  }
+}
@@ -0,0 +1,64 @@
+package dev.lobophf.swplanetapi.reactive;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.springframework.r2dbc.core.DatabaseClient;
+
+import reactor.core.publisher.Mono;
+
+// Hands out ids from the same table-backed sequences as Hibernate's pooled
+// optimizer: reading next_val = v and moving it to v + incrementSize reserves
+// the ids (v - incrementSize, v]. Blocks must be reserved outside the caller's
+// transaction, so a rollback can never give the same block out twice.
+class ReactiveIdAllocator {
+  private final DatabaseClient databaseClient;
+  private final String table;
+  private final int incrementSize;
+  private final AtomicReference<Block> block = new AtomicReference<>();
+
+  ReactiveIdAllocator(DatabaseClient databaseClient, String table, int incrementSize) {
+    this.databaseClient = databaseClient;
+    this.table = table;
+    this.incrementSize = incrementSize;
+  }
+
+  Mono<Long> next() {
+    Block current = block.get();
+    if (current != null) {
+      long id = current.next.getAndIncrement();
+      if (id <= current.hi) {
+        return Mono.just(id);
+      }
+    }
+    return reserve().map(reserved -> {
+      block.set(reserved);
+      return reserved.next.getAndIncrement();
+    });
+  }
+
+  private Mono<Block> reserve() {
+    return databaseClient.sql("SELECT next_val FROM " + table)
+        .map((row, metadata) -> row.get("next_val", Long.class))
+        .one()
+        .flatMap(hi -> databaseClient
+            .sql("UPDATE " + table + " SET next_val = :next WHERE next_val = :hi")
+            .bind("next", hi + incrementSize)
+            .bind("hi", hi)
+            .fetch()
+            .rowsUpdated()
+            .flatMap(updated -> updated == 1 ? Mono.just(new Block(Math.max(1, hi - incrementSize + 1), hi))
+                : Mono.empty()))
+        .switchIfEmpty(Mono.defer(this::reserve));
+  }
+
+  private static class Block {
+    private final AtomicLong next;
+    private final long hi;
+
+    Block(long first, long hi) {
+      this.next = new AtomicLong(first);
+      this.hi = hi;
+    }
+  }
+}
@@ -0,0 +1,113 @@
+package dev.lobophf.swplanetapi.reactive;
+
+import java.util.List;
+
+import javax.validation.Valid;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.server.ServerWebExchange;
+
+import dev.lobophf.swplanetapi.domain.Planet;
+import dev.lobophf.swplanetapi.web.PlanetController;
+import dev.lobophf.swplanetapi.web.PlanetCursor;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@RestController
+@Profile("reactive")
+@RequestMapping("/planets")
+public class ReactivePlanetController {
+  private ReactivePlanetService planetService;
+
+  public ReactivePlanetController(ReactivePlanetService planetService) {
+    this.planetService = planetService;
+  }
+
+  @PostMapping
+  public Mono<ResponseEntity<Planet>> create(@RequestBody @Valid Planet planet) {
+    return planetService.create(planet).map(created -> ResponseEntity.status(HttpStatus.CREATED).body(created));
+  }
+
+  @GetMapping("/{id}")
+  public Mono<ResponseEntity<Planet>> get(@PathVariable("id") Long id) {
+    return planetService.get(id).map(planet -> ResponseEntity.ok().eTag(eTag(planet)).body(planet))
+        .defaultIfEmpty(ResponseEntity.notFound().build());
+  }
+
+  @GetMapping("/name/{name}")
+  public Mono<ResponseEntity<Planet>> getByName(@PathVariable("name") String name) {
+    return planetService.getByName(name).map(planet -> ResponseEntity.ok().eTag(eTag(planet)).body(planet))
+        .defaultIfEmpty(ResponseEntity.notFound().build());
+  }
+
+  @GetMapping
+  public Mono<ResponseEntity<List<Planet>>> list(@RequestParam(required = false) String terrain,
+      @RequestParam(required = false) String climate, @RequestParam(defaultValue = "false") boolean exact,
+      @RequestParam(required = false) Integer limit, @RequestParam(required = false) String after,
+      ServerWebExchange exchange) {
+    return planetService.catalogVersion().flatMap(version -> {
+      String eTag = "W/\"" + version + "\"";
+      if (exchange.checkNotModified(eTag)) {
+        return Mono.empty();
+      }
+
+      if (limit == null && after == null) {
+        return planetService.list(terrain, climate, exact).collectList()
+            .map(planets -> ResponseEntity.ok().eTag(eTag).body(planets));
+      }
+
+      int pageSize = limit == null ? PlanetController.DEFAULT_PAGE_SIZE : limit;
+      if (pageSize < 1 || pageSize > PlanetController.MAX_PAGE_SIZE) {
+        return Mono.error(new ResponseStatusException(HttpStatus.BAD_REQUEST,
+            String.format("limit must be between 1 and %d", PlanetController.MAX_PAGE_SIZE)));
+      }
+      return planetService.list(terrain, climate, exact, decodeCursor(after), pageSize).collectList()
+          .map(planets -> {
+            if (planets.size() < pageSize) {
+              return ResponseEntity.ok().eTag(eTag).body(planets);
+            }
+            String nextCursor = PlanetCursor.encode(planets.get(planets.size() - 1).getId());
+            return ResponseEntity.ok().eTag(eTag).header(PlanetController.NEXT_CURSOR_HEADER, nextCursor)
+                .body(planets);
+          });
+    });
+  }
+
+  @GetMapping(produces = PlanetController.APPLICATION_NDJSON_VALUE)
+  public Flux<Planet> stream(@RequestParam(required = false) String terrain,
+      @RequestParam(required = false) String climate, @RequestParam(defaultValue = "false") boolean exact) {
+    return planetService.list(terrain, climate, exact);
+  }
+
+  @DeleteMapping("/{id}")
+  public Mono<ResponseEntity<Void>> remove(@PathVariable("id") Long id) {
+    return planetService.remove(id).map(removed -> removed ? ResponseEntity.noContent().<Void>build()
+        : ResponseEntity.notFound().<Void>build());
+  }
+
+  private static String eTag(Planet planet) {
+    return "\"" + planet.getId() + "-" + (planet.getVersion() == null ? 0 : planet.getVersion()) + "\"";
+  }
+
+  private static Long decodeCursor(String cursor) {
+    if (cursor == null) {
+      return null;
+    }
+    try {
+      return PlanetCursor.decode(cursor);
+    } catch (IllegalArgumentException ex) {
+      throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor", ex);
+    }
+  }
+}
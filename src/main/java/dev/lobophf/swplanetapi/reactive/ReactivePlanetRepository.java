@@ -0,0 +1,214 @@
+package dev.lobophf.swplanetapi.reactive;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+
+import dev.lobophf.swplanetapi.domain.CatalogVersion;
+import dev.lobophf.swplanetapi.domain.Planet;
+import dev.lobophf.swplanetapi.domain.PlanetChange;
+import dev.lobophf.swplanetapi.domain.PlanetFacet;
+import dev.lobophf.swplanetapi.domain.PlanetToken;
+import io.r2dbc.spi.Row;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+// Reads and writes the tables mapped by Planet, PlanetToken, PlanetFacet, PlanetChange
+// and CatalogVersion.
+// The schema itself is still created and migrated through JPA.
+@Repository
+@Profile("reactive")
+public class ReactivePlanetRepository {
+  private static final String SELECT_VIEWS = "SELECT p.id, p.name, p.climate, p.terrain, p.version FROM planets p";
+  private static final int ID_INCREMENT_SIZE = 50;
+
+  private final DatabaseClient databaseClient;
+  private final ReactiveIdAllocator planetIds;
+  private final ReactiveIdAllocator tokenIds;
+  private final boolean mySql;
+
+  public ReactivePlanetRepository(DatabaseClient databaseClient) {
+    this.databaseClient = databaseClient;
+    this.mySql = "MySQL".equalsIgnoreCase(databaseClient.getConnectionFactory().getMetadata().getName());
+    this.planetIds = new ReactiveIdAllocator(databaseClient, "planets_seq", ID_INCREMENT_SIZE);
+    this.tokenIds = new ReactiveIdAllocator(databaseClient, "planet_tokens_seq", ID_INCREMENT_SIZE);
+  }
+
+  public Mono<Long> nextPlanetId() {
+    return planetIds.next();
+  }
+
+  public Mono<List<Long>> nextTokenIds(int count) {
+    return Flux.range(0, count).concatMap(i -> tokenIds.next()).collectList();
+  }
+
+  public Mono<Planet> findViewById(Long id) {
+    return databaseClient.sql(SELECT_VIEWS + " WHERE p.id = :id")
+        .bind("id", id)
+        .map((row, metadata) -> toPlanet(row))
+        .one();
+  }
+
+  public Mono<Planet> findViewByName(String name) {
+    return databaseClient.sql(SELECT_VIEWS + " WHERE p.name = :name")
+        .bind("name", name)
+        .map((row, metadata) -> toPlanet(row))
+        .one();
+  }
+
+  // Mirrors QueryBuilder.makeSpecification(terrain, climate, exact): token filters
+  // match any of the comma-separated values, exact filters the whole column.
+  public Flux<Planet> findViews(String terrain, String climate, boolean exact, Long after, Integer limit) {
+    List<String> predicates = new ArrayList<>();
+    Map<String, Object> parameters = new LinkedHashMap<>();
+    if (exact) {
+      addExactPredicate(predicates, parameters, "terrain", terrain);
+      addExactPredicate(predicates, parameters, "climate", climate);
+    } else {
+      addTokenPredicate(predicates, parameters, PlanetToken.Kind.TERRAIN, terrain);
+      addTokenPredicate(predicates, parameters, PlanetToken.Kind.CLIMATE, climate);
+    }
+    if (after != null) {
+      predicates.add("p.id > :after");
+      parameters.put("after", after);
+    }
+
+    StringBuilder sql = new StringBuilder(SELECT_VIEWS);
+    if (!predicates.isEmpty()) {
+      sql.append(" WHERE ").append(String.join(" AND ", predicates));
+    }
+    sql.append(" ORDER BY p.id");
+    if (limit != null) {
+      sql.append(" LIMIT ").append(limit.intValue());
+    }
+
+    DatabaseClient.GenericExecuteSpec spec = databaseClient.sql(sql.toString());
+    for (Map.Entry<String, Object> parameter : parameters.entrySet()) {
+      spec = spec.bind(parameter.getKey(), parameter.getValue());
+    }
+    return spec.map((row, metadata) -> toPlanet(row)).all();
+  }
+
+  public Mono<Void> insert(Long id, Planet planet, List<Long> tokenIds) {
+    Mono<Void> insertPlanet = databaseClient
+        .sql("INSERT INTO planets (id, name, climate, terrain, version) VALUES (:id, :name, :climate, :terrain, 0)")
+        .bind("id", id)
+        .bind("name", planet.getName())
+        .bind("climate", planet.getClimate())
+        .bind("terrain", planet.getTerrain())
+        .then();
+
+    List<Mono<Void>> insertTokens = new ArrayList<>();
+    List<String> terrainTokens = PlanetToken.tokenize(planet.getTerrain());
+    List<String> climateTokens = PlanetToken.tokenize(planet.getClimate());
+    for (int i = 0; i < terrainTokens.size(); i++) {
+      insertTokens.add(insertToken(tokenIds.get(i), id, PlanetToken.Kind.TERRAIN, terrainTokens.get(i)));
+    }
+    for (int i = 0; i < climateTokens.size(); i++) {
+      insertTokens.add(insertToken(tokenIds.get(terrainTokens.size() + i), id, PlanetToken.Kind.CLIMATE,
+          climateTokens.get(i)));
+    }
+    return insertPlanet.then(Flux.concat(insertTokens).then())
+        .then(adjustFacets(id, mySql ? PlanetFacet.MYSQL_ADD : PlanetFacet.H2_ADD));
+  }
+
+  // The tokens go with the planet through ON DELETE CASCADE, so the facets are
+  // adjusted first. The row is locked before that, so of two concurrent
+  // deletes only the one that finds it adjusts the counts.
+  public Mono<Integer> deleteOne(Long id) {
+    return databaseClient.sql("SELECT id FROM planets WHERE id = :id FOR UPDATE")
+        .bind("id", id)
+        .map((row, metadata) -> row.get("id", Long.class))
+        .one()
+        .flatMap(locked -> adjustFacets(id, mySql ? PlanetFacet.MYSQL_REMOVE : PlanetFacet.H2_REMOVE)
+            .then(databaseClient.sql("DELETE FROM planets WHERE id = :id")
+                .bind("id", id)
+                .fetch()
+                .rowsUpdated()))
+        .defaultIfEmpty(0);
+  }
+
+  public Mono<Long> findCatalogVersion() {
+    return databaseClient.sql("SELECT version FROM catalog_version WHERE id = :id")
+        .bind("id", CatalogVersion.PLANETS)
+        .map((row, metadata) -> row.get("version", Long.class))
+        .one()
+        .defaultIfEmpty(0L);
+  }
+
+  public Mono<Void> incrementCatalogVersion() {
+    return databaseClient.sql("UPDATE catalog_version SET version = version + 1 WHERE id = :id")
+        .bind("id", CatalogVersion.PLANETS)
+        .then();
+  }
+
+  // Records the change under the catalog version the transaction just bumped.
+  public Mono<Void> appendChange(PlanetChange.Type type, Long planetId, Planet planet) {
+    return findCatalogVersion().flatMap(sequence -> {
+      DatabaseClient.GenericExecuteSpec spec = databaseClient.sql("INSERT INTO planet_changes "
+          + "(seq, planet_id, type, name, climate, terrain) VALUES (:seq, :planetId, :type, :name, :climate, :terrain)")
+          .bind("seq", sequence)
+          .bind("planetId", planetId)
+          .bind("type", type.name());
+      if (planet == null) {
+        spec = spec.bindNull("name", String.class).bindNull("climate", String.class)
+            .bindNull("terrain", String.class);
+      } else {
+        spec = spec.bind("name", planet.getName()).bind("climate", planet.getClimate())
+            .bind("terrain", planet.getTerrain());
+      }
+      return spec.then();
+    });
+  }
+
+  private Mono<Void> adjustFacets(Long planetId, String statement) {
+    return databaseClient.sql(statement)
+        .bind("ids", List.of(planetId))
+        .then();
+  }
+
+  private Mono<Void> insertToken(Long id, Long planetId, PlanetToken.Kind kind, String token) {
+    return databaseClient
+        .sql("INSERT INTO planet_tokens (id, planet_id, kind, token) VALUES (:id, :planetId, :kind, :token)")
+        .bind("id", id)
+        .bind("planetId", planetId)
+        .bind("kind", kind.name())
+        .bind("token", token)
+        .then();
+  }
+
+  private static void addExactPredicate(List<String> predicates, Map<String, Object> parameters, String column,
+      String value) {
+    if (value != null) {
+      predicates.add("LOWER(p." + column + ") = LOWER(:" + column + ")");
+      parameters.put(column, value);
+    }
+  }
+
+  private static void addTokenPredicate(List<String> predicates, Map<String, Object> parameters,
+      PlanetToken.Kind kind, String value) {
+    if (value == null) {
+      return;
+    }
+    List<String> tokens = PlanetToken.tokenize(value);
+    if (tokens.isEmpty()) {
+      predicates.add("1 = 0");
+      return;
+    }
+    String parameter = kind.name().toLowerCase(Locale.ROOT) + "Tokens";
+    predicates.add("EXISTS (SELECT 1 FROM planet_tokens t WHERE t.planet_id = p.id AND t.kind = '" + kind.name()
+        + "' AND t.token IN (:" + parameter + "))");
+    parameters.put(parameter, tokens);
+  }
+
+  private static Planet toPlanet(Row row) {
+    return new Planet(row.get("id", Long.class), row.get("name", String.class), row.get("climate", String.class),
+        row.get("terrain", String.class), row.get("version", Long.class));
+  }
+}
@@ -0,0 +1,63 @@
+package dev.lobophf.swplanetapi.reactive;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.reactive.TransactionalOperator;
+
+import dev.lobophf.swplanetapi.domain.Planet;
+import dev.lobophf.swplanetapi.domain.PlanetChange;
+import dev.lobophf.swplanetapi.domain.PlanetToken;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@Service
+@Profile("reactive")
+public class ReactivePlanetService {
+  private ReactivePlanetRepository planetRepository;
+  private TransactionalOperator transactionalOperator;
+
+  public ReactivePlanetService(ReactivePlanetRepository planetRepository,
+      TransactionalOperator transactionalOperator) {
+    this.planetRepository = planetRepository;
+    this.transactionalOperator = transactionalOperator;
+  }
+
+  public Mono<Planet> create(Planet planet) {
+    int tokenCount = PlanetToken.tokenize(planet.getTerrain()).size() + PlanetToken.tokenize(planet.getClimate()).size();
+    // Ids are reserved before the transaction starts, see ReactiveIdAllocator.
+    return Mono.zip(planetRepository.nextPlanetId(), planetRepository.nextTokenIds(tokenCount))
+        .flatMap(ids -> transactionalOperator.transactional(
+            planetRepository.insert(ids.getT1(), planet, ids.getT2())
+                .then(planetRepository.incrementCatalogVersion())
+                .then(planetRepository.appendChange(PlanetChange.Type.SAVED, ids.getT1(), planet))
+                .then(planetRepository.findViewById(ids.getT1()))));
+  }
+
+  public Mono<Planet> get(Long id) {
+    return planetRepository.findViewById(id);
+  }
+
+  public Mono<Planet> getByName(String name) {
+    return planetRepository.findViewByName(name);
+  }
+
+  public Mono<Long> catalogVersion() {
+    return planetRepository.findCatalogVersion();
+  }
+
+  public Flux<Planet> list(String terrain, String climate, boolean exact) {
+    return planetRepository.findViews(terrain, climate, exact, null, null);
+  }
+
+  public Flux<Planet> list(String terrain, String climate, boolean exact, Long after, int limit) {
+    return planetRepository.findViews(terrain, climate, exact, after, limit);
+  }
+
+  public Mono<Boolean> remove(Long id) {
+    return transactionalOperator.transactional(planetRepository.deleteOne(id)
+        .flatMap(removed -> removed == 0 ? Mono.just(false)
+            : planetRepository.incrementCatalogVersion()
+                .then(planetRepository.appendChange(PlanetChange.Type.REMOVED, id, null))
+                .thenReturn(true)));
+  }
+}
@@ -0,0 +1,18 @@
+package dev.lobophf.swplanetapi.web;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+
+// Replaces Spring's default CBOR converter so application/cbor is written with
+// the same Jackson settings as the JSON the controllers return.
+@Component
+@Profile("!reactive")
+public class CborHttpMessageConverter extends MappingJackson2CborHttpMessageConverter {
+  public CborHttpMessageConverter(Jackson2ObjectMapperBuilder objectMapperBuilder) {
+    super(objectMapperBuilder.factory(new CBORFactory()).build());
+  }
+}
@@ -1,5 +1,10 @@
 package dev.lobophf.swplanetapi.web;
 
+import java.util.Map;
+
+import javax.validation.ConstraintViolationException;
+
+import org.springframework.context.annotation.Profile;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.dao.EmptyResultDataAccessException;
 import org.springframework.http.HttpHeaders;
@@ -11,7 +16,11 @@ import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.servlet.mvc.method.annotation.ResponseEntityExceptionHandler;
 
+import dev.lobophf.swplanetapi.concurrency.ConcurrencyLimitExceededException;
+import dev.lobophf.swplanetapi.domain.ResyncRequiredException;
+
 @ControllerAdvice
+@Profile("!reactive")
 public class GeneralExceptionHandler extends ResponseEntityExceptionHandler {
   @Override
   protected ResponseEntity<Object> handleMethodArgumentNotValid(MethodArgumentNotValidException ex, HttpHeaders headers,
@@ -19,6 +28,12 @@ public class GeneralExceptionHandler extends ResponseEntityExceptionHandler {
     return super.handleMethodArgumentNotValid(ex, headers, HttpStatus.UNPROCESSABLE_ENTITY, request);
   }
 
+  @ExceptionHandler(ConstraintViolationException.class)
+  private ResponseEntity<Object> handleConstraintViolation(ConstraintViolationException ex) {
+    return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY)
+        .body(ex.getMessage());
+  }
+
   @ExceptionHandler(DataIntegrityViolationException.class)
   private ResponseEntity<Object> handleConflict(DataIntegrityViolationException ex) {
     return ResponseEntity.status(HttpStatus.CONFLICT)
@@ -30,4 +45,17 @@ public class GeneralExceptionHandler extends ResponseEntityExceptionHandler {
     return ResponseEntity.status(HttpStatus.NOT_FOUND)
         .body(exception.getMessage());
   }
+
+  @ExceptionHandler(ConcurrencyLimitExceededException.class)
+  private ResponseEntity<Object> handleOverload(ConcurrencyLimitExceededException ex) {
+    return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+        .header(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, ex.getRetryAfter().toSeconds())))
+        .body(ex.getMessage());
+  }
+
+  @ExceptionHandler(ResyncRequiredException.class)
+  private ResponseEntity<Object> handleResyncRequired(ResyncRequiredException ex) {
+    return ResponseEntity.status(HttpStatus.GONE)
+        .body(Map.of("message", ex.getMessage(), "version", ex.getVersion()));
+  }
 }
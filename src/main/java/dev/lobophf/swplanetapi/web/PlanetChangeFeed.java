@@ -0,0 +1,222 @@
+package dev.lobophf.swplanetapi.web;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import dev.lobophf.swplanetapi.domain.PlanetChange;
+import dev.lobophf.swplanetapi.domain.PlanetChangeEvent;
+import dev.lobophf.swplanetapi.domain.PlanetChangeLog;
+import dev.lobophf.swplanetapi.domain.PlanetChanges;
+import dev.lobophf.swplanetapi.domain.ResyncRequiredException;
+
+// Parks long-poll requests and SSE streams without holding a servlet thread
+// and hands them new changes from a single dispatcher thread. Writes on this
+// instance wake it after commit; writes on other instances are noticed by
+// polling the catalog version while anyone is waiting. Changes are read in
+// read-only transactions, so possibly from a replica that has not caught up
+// yet: the poll keeps waking the dispatcher until every cursor has reached the
+// primary's version, so a lagging replica only delays them. The same poll
+// sends streams a comment frame every heartbeat interval, so proxies do not cut
+// idle ones and streams whose client has gone are dropped.
+@Component
+@Profile("!reactive")
+public class PlanetChangeFeed {
+  static final int STREAM_BATCH_SIZE = 1000;
+  private static final Logger log = LoggerFactory.getLogger(PlanetChangeFeed.class);
+
+  private final PlanetChangeLog changeLog;
+  private final Duration streamTimeout;
+  private final Duration heartbeatInterval;
+  private volatile long lastHeartbeat = System.nanoTime();
+  private final Set<Waiter> waiters = ConcurrentHashMap.newKeySet();
+  private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+  private final AtomicBoolean dispatchPending = new AtomicBoolean();
+  private final ExecutorService dispatcher = Executors.newSingleThreadExecutor(runnable -> {
+    Thread thread = new Thread(runnable, "planet-changes");
+    thread.setDaemon(true);
+    return thread;
+  });
+
+  public PlanetChangeFeed(PlanetChangeLog changeLog,
+      @Value("${planets.changes.stream-timeout:30m}") Duration streamTimeout,
+      @Value("${planets.changes.heartbeat-interval:15s}") Duration heartbeatInterval) {
+    this.changeLog = changeLog;
+    this.streamTimeout = streamTimeout;
+    this.heartbeatInterval = heartbeatInterval;
+  }
+
+  public DeferredResult<PlanetChanges> poll(long since, int limit, Duration wait) {
+    PlanetChanges changes = changeLog.read(since, limit);
+    DeferredResult<PlanetChanges> result = new DeferredResult<>(wait.toMillis(), changes);
+    if (!changes.getChanges().isEmpty() || wait.isZero()) {
+      result.setResult(changes);
+      return result;
+    }
+    Waiter waiter = new Waiter(changes.getNext(), limit, result);
+    waiters.add(waiter);
+    result.onCompletion(() -> waiters.remove(waiter));
+    // Covers a commit that landed between the read and the registration.
+    scheduleDispatch();
+    return result;
+  }
+
+  public SseEmitter subscribe(long since) {
+    SseEmitter emitter = new SseEmitter(streamTimeout.toMillis());
+    Subscriber subscriber = new Subscriber(since, emitter);
+    subscribers.add(subscriber);
+    emitter.onCompletion(() -> subscribers.remove(subscriber));
+    emitter.onTimeout(emitter::complete);
+    scheduleDispatch();
+    return emitter;
+  }
+
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onChange(PlanetChangeEvent event) {
+    scheduleDispatch();
+  }
+
+  @Scheduled(fixedDelayString = "${planets.changes.poll-interval-ms:1000}")
+  public void pollVersion() {
+    if (waiters.isEmpty() && subscribers.isEmpty()) {
+      return;
+    }
+    long now = System.nanoTime();
+    if (!subscribers.isEmpty() && now - lastHeartbeat >= heartbeatInterval.toNanos()) {
+      lastHeartbeat = now;
+      // On the dispatcher, so heartbeats never interleave with a batch being sent.
+      dispatcher.execute(this::sendHeartbeats);
+    }
+    long version = changeLog.currentVersion();
+    if (waiters.stream().anyMatch(waiter -> waiter.since < version)
+        || subscribers.stream().anyMatch(subscriber -> subscriber.cursor < version)) {
+      scheduleDispatch();
+    }
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    dispatcher.shutdownNow();
+    subscribers.forEach(subscriber -> subscriber.emitter.complete());
+  }
+
+  private void scheduleDispatch() {
+    if (dispatchPending.compareAndSet(false, true)) {
+      dispatcher.execute(() -> {
+        dispatchPending.set(false);
+        dispatch();
+      });
+    }
+  }
+
+  private void dispatch() {
+    for (Waiter waiter : waiters) {
+      try {
+        PlanetChanges changes = changeLog.read(waiter.since, waiter.limit);
+        if (!changes.getChanges().isEmpty()) {
+          waiter.result.setResult(changes);
+        }
+      } catch (ResyncRequiredException ex) {
+        waiter.result.setErrorResult(ex);
+      } catch (RuntimeException ex) {
+        log.warn("Reading changes for a long poll failed", ex);
+      }
+    }
+    for (Subscriber subscriber : subscribers) {
+      try {
+        send(subscriber);
+      } catch (ResyncRequiredException ex) {
+        sendResync(subscriber, ex);
+      } catch (IOException ex) {
+        drop(subscriber, ex);
+      } catch (RuntimeException ex) {
+        log.warn("Reading changes for a stream failed", ex);
+      }
+    }
+  }
+
+  // Only the last change of each version carries an id, so a client that
+  // reconnects with Last-Event-ID never resumes in the middle of a version.
+  private void send(Subscriber subscriber) throws IOException {
+    PlanetChanges changes;
+    do {
+      changes = changeLog.read(subscriber.cursor, STREAM_BATCH_SIZE);
+      List<PlanetChange> batch = changes.getChanges();
+      for (int i = 0; i < batch.size(); i++) {
+        PlanetChange change = batch.get(i);
+        SseEmitter.SseEventBuilder event = SseEmitter.event().name("change").data(change, MediaType.APPLICATION_JSON);
+        if (i == batch.size() - 1 || batch.get(i + 1).getSequence() != change.getSequence()) {
+          event.id(String.valueOf(change.getSequence()));
+        }
+        subscriber.emitter.send(event);
+      }
+      subscriber.cursor = changes.getNext();
+    } while (changes.getChanges().size() >= STREAM_BATCH_SIZE);
+  }
+
+  private void sendHeartbeats() {
+    for (Subscriber subscriber : subscribers) {
+      try {
+        subscriber.emitter.send(SseEmitter.event().comment(""));
+      } catch (IOException | IllegalStateException ex) {
+        drop(subscriber, ex);
+      }
+    }
+  }
+
+  private void drop(Subscriber subscriber, Exception ex) {
+    subscribers.remove(subscriber);
+    subscriber.emitter.completeWithError(ex);
+  }
+
+  private static void sendResync(Subscriber subscriber, ResyncRequiredException ex) {
+    try {
+      subscriber.emitter.send(SseEmitter.event().name("resync")
+          .data(Map.of("message", ex.getMessage(), "version", ex.getVersion()), MediaType.APPLICATION_JSON));
+      subscriber.emitter.complete();
+    } catch (IOException sendException) {
+      subscriber.emitter.completeWithError(sendException);
+    }
+  }
+
+  private static class Waiter {
+    private final long since;
+    private final int limit;
+    private final DeferredResult<PlanetChanges> result;
+
+    Waiter(long since, int limit, DeferredResult<PlanetChanges> result) {
+      this.since = since;
+      this.limit = limit;
+      this.result = result;
+    }
+  }
+
+  private static class Subscriber {
+    private final SseEmitter emitter;
+    private volatile long cursor;
+
+    Subscriber(long cursor, SseEmitter emitter) {
+      this.cursor = cursor;
+      this.emitter = emitter;
+    }
+  }
+}
@@ -1,58 +1,328 @@
 package dev.lobophf.swplanetapi.web;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.Duration;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
 
+import javax.validation.ConstraintViolation;
+import javax.validation.ConstraintViolationException;
 import javax.validation.Valid;
+import javax.validation.Validator;
+import javax.validation.constraints.NotEmpty;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.util.StreamUtils;
+import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import dev.lobophf.swplanetapi.concurrency.ConcurrencyLimitExempt;
 import dev.lobophf.swplanetapi.domain.Planet;
+import dev.lobophf.swplanetapi.domain.PlanetBatchResult;
+import dev.lobophf.swplanetapi.domain.PlanetChanges;
+import dev.lobophf.swplanetapi.domain.PlanetImportReport;
+import dev.lobophf.swplanetapi.domain.PlanetImporter;
+import dev.lobophf.swplanetapi.domain.PlanetListing;
+import dev.lobophf.swplanetapi.domain.PlanetLookup;
 import dev.lobophf.swplanetapi.domain.PlanetService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
 
 @RestController
+@Profile("!reactive")
+@Validated
 @RequestMapping("/planets")
 public class PlanetController {
+  public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+  public static final String APPLICATION_NDJSON_VALUE = "application/x-ndjson";
+  public static final int DEFAULT_PAGE_SIZE = 100;
+  public static final int MAX_PAGE_SIZE = 1000;
+  public static final String TEXT_CSV_VALUE = "text/csv";
+  public static final int DEFAULT_SEARCH_LIMIT = 10;
+  public static final int MAX_SEARCH_LIMIT = 50;
+  public static final String APPLICATION_GZIP_VALUE = "application/gzip";
+  public static final int MAX_CHANGES_WAIT_SECONDS = 60;
+  private static final int EXPORT_BUFFER_SIZE = 64 * 1024;
+  private static final CsvMapper CSV_MAPPER = new CsvMapper();
+  private static final CsvSchema CSV_SCHEMA = CsvSchema.builder()
+      .addColumn("id").addColumn("name").addColumn("climate").addColumn("terrain")
+      .setUseHeader(true)
+      .build();
+
   @Autowired
   private PlanetService planetService;
 
+  @Autowired
+  private PlanetImporter planetImporter;
+
+  @Autowired
+  private PlanetChangeFeed planetChangeFeed;
+
+  @Autowired
+  private ObjectMapper objectMapper;
+
+  @Autowired
+  private Validator validator;
+
   @PostMapping
   public ResponseEntity<Planet> create(@RequestBody @Valid Planet planet) {
     Planet planetCreated = planetService.create(planet);
     return ResponseEntity.status(HttpStatus.CREATED).body(planetCreated);
   }
 
+  @PostMapping("/batch")
+  public ResponseEntity<List<PlanetBatchResult>> createAll(@RequestBody @NotEmpty List<@Valid Planet> planets) {
+    List<PlanetBatchResult> results = planetService.createAll(planets);
+    return ResponseEntity.ok(results);
+  }
+
+  @ConcurrencyLimitExempt
+  @PostMapping(path = "/import", consumes = { MediaType.APPLICATION_JSON_VALUE, TEXT_CSV_VALUE })
+  public ResponseEntity<PlanetImportReport> importPlanets(@RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+      InputStream body) throws IOException {
+    PlanetImporter.Format format = contentType.isCompatibleWith(MediaType.parseMediaType(TEXT_CSV_VALUE))
+        ? PlanetImporter.Format.CSV
+        : PlanetImporter.Format.JSON;
+    return ResponseEntity.ok(planetImporter.importPlanets(body, format));
+  }
+
+  @PutMapping("/name/{name}")
+  public ResponseEntity<Planet> upsert(@PathVariable("name") String name, @RequestBody Planet planet) {
+    planet.setName(name);
+    Set<ConstraintViolation<Planet>> violations = validator.validate(planet);
+    if (!violations.isEmpty()) {
+      throw new ConstraintViolationException(violations);
+    }
+    PlanetBatchResult result = planetService.upsert(planet);
+    HttpStatus status = result.getStatus() == PlanetBatchResult.Status.CREATED ? HttpStatus.CREATED : HttpStatus.OK;
+    return ResponseEntity.status(status).eTag(eTag(result.getPlanet())).body(result.getPlanet());
+  }
+
+  @PutMapping
+  public ResponseEntity<List<PlanetBatchResult>> upsertAll(@RequestBody @NotEmpty List<@Valid Planet> planets) {
+    List<PlanetBatchResult> results = planetService.upsertAll(planets);
+    return ResponseEntity.ok(results);
+  }
+
   @GetMapping("/{id}")
   public ResponseEntity<Planet> get(@PathVariable("id") Long id) {
-    return planetService.get(id).map(planet -> ResponseEntity.ok(planet))
+    return planetService.get(id).map(planet -> ResponseEntity.ok().eTag(eTag(planet)).body(planet))
         .orElseGet(() -> ResponseEntity.notFound().build());
   }
 
   @GetMapping("/name/{name}")
   public ResponseEntity<Planet> getByName(@PathVariable("name") String name) {
-    return planetService.getByName(name).map(planet -> ResponseEntity.ok(planet))
+    return planetService.getByName(name).map(planet -> ResponseEntity.ok().eTag(eTag(planet)).body(planet))
         .orElseGet(() -> ResponseEntity.notFound().build());
   }
 
+  // The catalog version is checked first so an unchanged catalog is answered
+  // without reading the planets. The ETag sent with a body carries the version
+  // the body was read at.
   @GetMapping
   public ResponseEntity<List<Planet>> list(@RequestParam(required = false) String terrain,
-      @RequestParam(required = false) String climate) {
-    List<Planet> planets = planetService.list(terrain, climate);
-    return ResponseEntity.ok(planets);
+      @RequestParam(required = false) String climate, @RequestParam(defaultValue = "false") boolean exact,
+      @RequestParam(required = false) Integer limit, @RequestParam(required = false) String after,
+      WebRequest request) {
+    if (request.checkNotModified(listETag(planetService.catalogVersion()))) {
+      return null;
+    }
+
+    if (limit == null && after == null) {
+      PlanetListing listing = planetService.listing(terrain, climate, exact);
+      return ResponseEntity.ok().eTag(listETag(listing.getVersion())).body(listing.getPlanets());
+    }
+
+    int pageSize = limit == null ? DEFAULT_PAGE_SIZE : limit;
+    if (pageSize < 1 || pageSize > MAX_PAGE_SIZE) {
+      throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+          String.format("limit must be between 1 and %d", MAX_PAGE_SIZE));
+    }
+
+    PlanetListing listing = planetService.listing(terrain, climate, exact, decodeCursor(after), pageSize);
+    List<Planet> planets = listing.getPlanets();
+    String eTag = listETag(listing.getVersion());
+    if (planets.size() < pageSize) {
+      return ResponseEntity.ok().eTag(eTag).body(planets);
+    }
+    String nextCursor = PlanetCursor.encode(planets.get(planets.size() - 1).getId());
+    return ResponseEntity.ok().eTag(eTag).header(NEXT_CURSOR_HEADER, nextCursor).body(planets);
+  }
+
+  @GetMapping(params = "ids")
+  public ResponseEntity<PlanetLookup> lookup(@RequestParam List<Long> ids) {
+    if (ids.size() > MAX_PAGE_SIZE) {
+      throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+          String.format("at most %d ids can be requested at once", MAX_PAGE_SIZE));
+    }
+    return ResponseEntity.ok(planetService.lookup(ids));
+  }
+
+  @GetMapping("/search")
+  public ResponseEntity<List<Planet>> search(@RequestParam String prefix,
+      @RequestParam(defaultValue = "" + DEFAULT_SEARCH_LIMIT) int limit) {
+    if (limit < 1 || limit > MAX_SEARCH_LIMIT) {
+      throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+          String.format("limit must be between 1 and %d", MAX_SEARCH_LIMIT));
+    }
+    return ResponseEntity.ok(planetService.search(prefix, limit));
+  }
+
+  @GetMapping("/facets")
+  public ResponseEntity<Map<String, Map<String, Long>>> facets() {
+    return ResponseEntity.ok(planetService.facets());
+  }
+
+  @ConcurrencyLimitExempt
+  @GetMapping("/changes")
+  public DeferredResult<PlanetChanges> changes(@RequestParam long since,
+      @RequestParam(defaultValue = "" + DEFAULT_PAGE_SIZE) int limit, @RequestParam(defaultValue = "0") int wait) {
+    if (limit < 1 || limit > MAX_PAGE_SIZE) {
+      throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+          String.format("limit must be between 1 and %d", MAX_PAGE_SIZE));
+    }
+    if (wait < 0 || wait > MAX_CHANGES_WAIT_SECONDS) {
+      throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+          String.format("wait must be between 0 and %d seconds", MAX_CHANGES_WAIT_SECONDS));
+    }
+    return planetChangeFeed.poll(since, limit, Duration.ofSeconds(wait));
+  }
+
+  @ConcurrencyLimitExempt
+  @GetMapping(path = "/changes", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+  public SseEmitter changeStream(@RequestParam(required = false) Long since,
+      @RequestHeader(name = "Last-Event-ID", required = false) Long lastEventId) {
+    if (lastEventId != null) {
+      return planetChangeFeed.subscribe(lastEventId);
+    }
+    return planetChangeFeed.subscribe(since == null ? planetService.catalogVersion() : since);
+  }
+
+  @ConcurrencyLimitExempt
+  @GetMapping(produces = APPLICATION_NDJSON_VALUE)
+  public ResponseEntity<StreamingResponseBody> stream(@RequestParam(required = false) String terrain,
+      @RequestParam(required = false) String climate, @RequestParam(defaultValue = "false") boolean exact) {
+    ObjectWriter writer = objectMapper.writerFor(Planet.class);
+    StreamingResponseBody body = outputStream -> planetService.stream(terrain, climate, exact, planet -> {
+      try {
+        outputStream.write(writer.writeValueAsBytes(planet));
+        outputStream.write('\n');
+      } catch (IOException ex) {
+        throw new UncheckedIOException(ex);
+      }
+    });
+    return ResponseEntity.ok().contentType(MediaType.parseMediaType(APPLICATION_NDJSON_VALUE)).body(body);
+  }
+
+  @ConcurrencyLimitExempt
+  @GetMapping("/export")
+  public ResponseEntity<StreamingResponseBody> export(@RequestParam(defaultValue = "ndjson") String format,
+      @RequestParam(required = false) String terrain, @RequestParam(required = false) String climate,
+      @RequestParam(defaultValue = "false") boolean exact, @RequestParam(required = false) Long after) {
+    ObjectWriter writer;
+    if ("ndjson".equals(format)) {
+      writer = objectMapper.writerFor(Planet.class).withRootValueSeparator("\n")
+          .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    } else if ("csv".equals(format)) {
+      writer = CSV_MAPPER.writerFor(Planet.class).with(CSV_SCHEMA);
+    } else {
+      throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "format must be ndjson or csv");
+    }
+
+    StreamingResponseBody body = outputStream -> {
+      try (SequenceWriter rows = writer.writeValues(gzip(outputStream))) {
+        planetService.stream(terrain, climate, exact, after, planet -> {
+          try {
+            rows.write(planet);
+          } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+          }
+        });
+      }
+    };
+    ContentDisposition attachment = ContentDisposition.attachment().filename("planets." + format + ".gz").build();
+    return ResponseEntity.ok().contentType(MediaType.parseMediaType(APPLICATION_GZIP_VALUE))
+        .header(HttpHeaders.CONTENT_DISPOSITION, attachment.toString()).body(body);
   }
 
   @DeleteMapping("/{id}")
   public ResponseEntity<Void> remove(@PathVariable("id") Long id) {
-    planetService.remove(id);
+    if (!planetService.remove(id)) {
+      return ResponseEntity.notFound().build();
+    }
     return ResponseEntity.noContent().build();
   }
+
+  @DeleteMapping
+  public ResponseEntity<Map<String, Integer>> removeAll(@RequestParam(required = false) List<Long> ids,
+      @RequestParam(required = false) String terrain, @RequestParam(required = false) String climate,
+      @RequestParam(defaultValue = "false") boolean exact) {
+    int removed;
+    if (ids != null) {
+      removed = planetService.removeAll(ids);
+    } else if (terrain != null || climate != null) {
+      removed = planetService.removeAll(terrain, climate, exact);
+    } else {
+      throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "ids, terrain or climate is required");
+    }
+    return ResponseEntity.ok(Map.of("deleted", removed));
+  }
+
+  // Favours throughput over ratio: the export is usually bound by compression.
+  private static OutputStream gzip(OutputStream outputStream) throws IOException {
+    return new GZIPOutputStream(StreamUtils.nonClosing(outputStream), EXPORT_BUFFER_SIZE) {
+      {
+        def.setLevel(Deflater.BEST_SPEED);
+      }
+    };
+  }
+
+  private static String eTag(Planet planet) {
+    return "\"" + planet.getId() + "-" + (planet.getVersion() == null ? 0 : planet.getVersion()) + "\"";
+  }
+
+  private static String listETag(long catalogVersion) {
+    return "W/\"" + catalogVersion + "\"";
+  }
+
+  private static Long decodeCursor(String cursor) {
+    if (cursor == null) {
+      return null;
+    }
+    try {
+      return PlanetCursor.decode(cursor);
+    } catch (IllegalArgumentException ex) {
+      throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor", ex);
+    }
+  }
 }
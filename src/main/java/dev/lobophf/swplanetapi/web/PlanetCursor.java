@@ -0,0 +1,24 @@
+package dev.lobophf.swplanetapi.web;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+public class PlanetCursor {
+  private static final String PREFIX = "id:";
+
+  private PlanetCursor() {
+  }
+
+  public static String encode(Long id) {
+    return Base64.getUrlEncoder().withoutPadding()
+        .encodeToString((PREFIX + id).getBytes(StandardCharsets.UTF_8));
+  }
+
+  public static Long decode(String cursor) {
+    String value = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+    if (!value.startsWith(PREFIX)) {
+      throw new IllegalArgumentException("Invalid cursor: " + cursor);
+    }
+    return Long.valueOf(value.substring(PREFIX.length()));
+  }
+}
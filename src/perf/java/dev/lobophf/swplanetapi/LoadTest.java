@@ -0,0 +1,315 @@
+package dev.lobophf.swplanetapi;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import dev.lobophf.swplanetapi.domain.Planet;
+import dev.lobophf.swplanetapi.domain.PlanetBatchResult;
+
+// Settings are read from loadTest.* system properties, which the loadTest
+// Gradle task forwards from -PloadTest.* project properties.
+public class LoadTest {
+  enum Endpoint {
+    CREATE("create"), GET("get"), GET_BY_NAME("getByName"), LIST("list"), DELETE("delete");
+
+    private final String key;
+
+    Endpoint(String key) {
+      this.key = key;
+    }
+
+    static Endpoint of(String key) {
+      for (Endpoint endpoint : values()) {
+        if (endpoint.key.equals(key)) {
+          return endpoint;
+        }
+      }
+      throw new IllegalArgumentException("Unknown endpoint: " + key);
+    }
+  }
+
+  private static final String[] TERRAINS = { "desert", "grasslands", "mountains", "jungle", "rainforests", "ocean",
+      "tundra", "swamp", "forests", "cityscape", "lakes", "volcanoes" };
+  private static final String[] CLIMATES = { "arid", "temperate", "tropical", "frozen", "murky", "humid" };
+  private static final int SEED_CHUNK_SIZE = 1000;
+
+  private final ObjectMapper objectMapper = new ObjectMapper();
+  private final HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+  private final AtomicLong createdCount = new AtomicLong();
+  private final Queue<Long> createdIds = new ConcurrentLinkedQueue<>();
+  private final List<Long> seededIds = new ArrayList<>();
+  private final String baseUrl;
+  private final Endpoint[] weightedEndpoints;
+
+  LoadTest(String baseUrl, Map<Endpoint, Integer> mix) {
+    this.baseUrl = baseUrl;
+    this.weightedEndpoints = mix.entrySet().stream()
+        .flatMap(entry -> Collections.nCopies(entry.getValue(), entry.getKey()).stream())
+        .toArray(Endpoint[]::new);
+  }
+
+  public static void main(String[] args) throws Exception {
+    int planets = Integer.getInteger("loadTest.planets", 1000);
+    int concurrency = Integer.getInteger("loadTest.concurrency", 16);
+    Duration warmup = Duration.ofSeconds(Integer.getInteger("loadTest.warmupSeconds", 5));
+    Duration duration = Duration.ofSeconds(Integer.getInteger("loadTest.durationSeconds", 30));
+    Map<Endpoint, Integer> mix = parseMix(System.getProperty("loadTest.mix",
+        "create=1,get=4,getByName=2,list=2,delete=1"));
+    Map<String, Long> budgets = parseBudgets(System.getProperty("loadTest.budgets",
+        "create.p99=200,get.p99=50,getByName.p99=50,list.p99=250,delete.p99=200"));
+
+    boolean reactive = "reactive".equals(System.getProperty("loadTest.profile"));
+
+    String database = UUID.randomUUID().toString();
+    List<String> arguments = new ArrayList<>(List.of("--server.port=0", "--logging.level.root=WARN",
+        "--spring.datasource.url=jdbc:h2:mem:" + database + ";DB_CLOSE_DELAY=-1"));
+    if (reactive) {
+      arguments.add("--spring.profiles.active=reactive");
+      arguments.add("--spring.r2dbc.url=r2dbc:h2:mem:///" + database + "?options=DB_CLOSE_DELAY=-1");
+    }
+    ConfigurableApplicationContext context = new SpringApplicationBuilder(SwPlanetApiApplication.class)
+        .run(arguments.toArray(new String[0]));
+    List<String> violations;
+    try {
+      int port = context.getEnvironment().getRequiredProperty("local.server.port", Integer.class);
+      LoadTest loadTest = new LoadTest("http://localhost:" + port, mix);
+      if (reactive) {
+        loadTest.seedOneByOne(planets);
+      } else {
+        loadTest.seed(planets);
+      }
+      loadTest.run(concurrency, warmup);
+      Map<Endpoint, Latencies> results = loadTest.run(concurrency, duration);
+      violations = report(results, duration, budgets);
+    } finally {
+      context.close();
+    }
+
+    if (!violations.isEmpty()) {
+      violations.forEach(System.err::println);
+      System.exit(1);
+    }
+  }
+
+  void seed(int planets) throws IOException, InterruptedException {
+    for (int start = 0; start < planets; start += SEED_CHUNK_SIZE) {
+      List<Planet> chunk = new ArrayList<>();
+      for (int i = start; i < Math.min(start + SEED_CHUNK_SIZE, planets); i++) {
+        chunk.add(planet("Planet " + i, i));
+      }
+      HttpResponse<String> response = client.send(json("/planets/batch", "POST", chunk),
+          HttpResponse.BodyHandlers.ofString());
+      List<PlanetBatchResult> results = objectMapper.readValue(response.body(),
+          new TypeReference<List<PlanetBatchResult>>() {
+          });
+      results.forEach(result -> seededIds.add(result.getPlanet().getId()));
+    }
+  }
+
+  // The reactive stack has no batch endpoint.
+  void seedOneByOne(int planets) throws IOException, InterruptedException {
+    for (int i = 0; i < planets; i++) {
+      HttpResponse<String> response = client.send(json("/planets", "POST", planet("Planet " + i, i)),
+          HttpResponse.BodyHandlers.ofString());
+      seededIds.add(objectMapper.readValue(response.body(), Planet.class).getId());
+    }
+  }
+
+  Map<Endpoint, Latencies> run(int concurrency, Duration duration) throws Exception {
+    ExecutorService executor = Executors.newFixedThreadPool(concurrency);
+    long deadline = System.nanoTime() + duration.toNanos();
+    List<Future<Map<Endpoint, Latencies>>> workers = new ArrayList<>();
+    for (int i = 0; i < concurrency; i++) {
+      workers.add(executor.submit(() -> work(deadline)));
+    }
+
+    Map<Endpoint, Latencies> merged = new EnumMap<>(Endpoint.class);
+    for (Future<Map<Endpoint, Latencies>> worker : workers) {
+      worker.get().forEach((endpoint, latencies) -> merged.computeIfAbsent(endpoint, key -> new Latencies())
+          .addAll(latencies));
+    }
+    executor.shutdown();
+    return merged;
+  }
+
+  private Map<Endpoint, Latencies> work(long deadline) throws IOException, InterruptedException {
+    Map<Endpoint, Latencies> latencies = new EnumMap<>(Endpoint.class);
+    ThreadLocalRandom random = ThreadLocalRandom.current();
+    while (System.nanoTime() < deadline) {
+      Endpoint endpoint = weightedEndpoints[random.nextInt(weightedEndpoints.length)];
+      HttpRequest request = request(endpoint, random);
+      if (request == null) {
+        continue;
+      }
+
+      long start = System.nanoTime();
+      HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+      long elapsed = System.nanoTime() - start;
+
+      Latencies endpointLatencies = latencies.computeIfAbsent(endpoint, key -> new Latencies());
+      if (response.statusCode() >= 400) {
+        endpointLatencies.errors++;
+        continue;
+      }
+      endpointLatencies.add(elapsed);
+      if (endpoint == Endpoint.CREATE) {
+        createdIds.add(objectMapper.readValue(response.body(), Planet.class).getId());
+      }
+    }
+    return latencies;
+  }
+
+  private HttpRequest request(Endpoint endpoint, ThreadLocalRandom random) throws IOException {
+    int seeded = random.nextInt(seededIds.size());
+    switch (endpoint) {
+      case CREATE:
+        return json("/planets", "POST", planet("Load " + createdCount.incrementAndGet(), seeded));
+      case GET:
+        return get("/planets/" + seededIds.get(seeded));
+      case GET_BY_NAME:
+        return get("/planets/name/" + encode("Planet " + seeded));
+      case LIST:
+        return get("/planets?terrain=" + encode(TERRAINS[random.nextInt(TERRAINS.length)])
+            + "&climate=" + encode(CLIMATES[random.nextInt(CLIMATES.length)]));
+      case DELETE:
+        // Only planets created by the run are removed, so the seeded ones stay readable.
+        Long id = createdIds.poll();
+        return id == null ? null : HttpRequest.newBuilder(URI.create(baseUrl + "/planets/" + id)).DELETE().build();
+      default:
+        throw new IllegalStateException("Unexpected endpoint: " + endpoint);
+    }
+  }
+
+  private HttpRequest get(String path) {
+    return HttpRequest.newBuilder(URI.create(baseUrl + path)).GET().build();
+  }
+
+  private HttpRequest json(String path, String method, Object body) throws IOException {
+    return HttpRequest.newBuilder(URI.create(baseUrl + path))
+        .header("Content-Type", "application/json")
+        .method(method, HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body)))
+        .build();
+  }
+
+  private static List<String> report(Map<Endpoint, Latencies> results, Duration duration, Map<String, Long> budgets) {
+    List<String> violations = new ArrayList<>();
+    System.out.printf(Locale.ROOT, "%-10s %10s %10s %8s %10s %10s %10s%n",
+        "endpoint", "requests", "req/s", "errors", "p50 ms", "p95 ms", "p99 ms");
+    for (Map.Entry<Endpoint, Latencies> entry : results.entrySet()) {
+      String key = entry.getKey().key;
+      Latencies latencies = entry.getValue();
+      latencies.sort();
+      Map<String, Double> percentiles = new LinkedHashMap<>();
+      percentiles.put("p50", latencies.percentile(50) / 1e6);
+      percentiles.put("p95", latencies.percentile(95) / 1e6);
+      percentiles.put("p99", latencies.percentile(99) / 1e6);
+      System.out.printf(Locale.ROOT, "%-10s %10d %10.1f %8d %10.2f %10.2f %10.2f%n",
+          key, latencies.size, latencies.size / (double) duration.toSeconds(), latencies.errors,
+          percentiles.get("p50"), percentiles.get("p95"), percentiles.get("p99"));
+
+      if (latencies.errors > 0) {
+        violations.add(key + ": " + latencies.errors + " failed requests");
+      }
+      percentiles.forEach((percentile, millis) -> {
+        Long budget = budgets.get(key + "." + percentile);
+        if (budget != null && millis > budget) {
+          violations.add(String.format(Locale.ROOT, "%s: %s of %.2f ms exceeds the %d ms budget",
+              key, percentile, millis, budget));
+        }
+      });
+    }
+    return violations;
+  }
+
+  private static Planet planet(String name, int i) {
+    String terrain = TERRAINS[i % TERRAINS.length] + ", " + TERRAINS[(i / TERRAINS.length) % TERRAINS.length];
+    return new Planet(name, CLIMATES[i % CLIMATES.length], terrain);
+  }
+
+  private static String encode(String value) {
+    return URLEncoder.encode(value, StandardCharsets.UTF_8).replace("+", "%20");
+  }
+
+  static Map<Endpoint, Integer> parseMix(String value) {
+    Map<Endpoint, Integer> mix = new EnumMap<>(Endpoint.class);
+    for (String entry : value.split(",")) {
+      String[] parts = entry.trim().split("=");
+      int weight = Integer.parseInt(parts[1].trim());
+      if (weight > 0) {
+        mix.put(Endpoint.of(parts[0].trim()), weight);
+      }
+    }
+    return mix;
+  }
+
+  static Map<String, Long> parseBudgets(String value) {
+    Map<String, Long> budgets = new LinkedHashMap<>();
+    for (String entry : value.split(",")) {
+      if (!entry.isBlank()) {
+        String[] parts = entry.trim().split("=");
+        budgets.put(parts[0].trim(), Long.parseLong(parts[1].trim()));
+      }
+    }
+    return budgets;
+  }
+
+  static class Latencies {
+    private long[] values = new long[1024];
+    private int size;
+    private long errors;
+
+    void add(long value) {
+      if (size == values.length) {
+        values = Arrays.copyOf(values, size * 2);
+      }
+      values[size++] = value;
+    }
+
+    void addAll(Latencies other) {
+      for (int i = 0; i < other.size; i++) {
+        add(other.values[i]);
+      }
+      errors += other.errors;
+    }
+
+    void sort() {
+      Arrays.sort(values, 0, size);
+    }
+
+    long percentile(double percentile) {
+      if (size == 0) {
+        return 0;
+      }
+      int rank = (int) Math.ceil(percentile / 100 * size);
+      return values[Math.max(rank, 1) - 1];
+    }
+  }
+}
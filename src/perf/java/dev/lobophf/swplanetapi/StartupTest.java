@@ -0,0 +1,132 @@
+package dev.lobophf.swplanetapi;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+// Runs the packaged application in fresh JVMs, as a pod would, and times how
+// long each takes to answer its first GET /planets. The "archive" command
+// does a training run and dumps the AppCDS archive used by the last variant.
+// The appCds and startupTest Gradle tasks prepare build/cds and call this.
+public class StartupTest {
+  private static final String MAIN_CLASS = "dev.lobophf.swplanetapi.SwPlanetApiApplication";
+  private static final Duration STARTUP_TIMEOUT = Duration.ofMinutes(2);
+
+  private final HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(1)).build();
+  private final String java = ProcessHandle.current().info().command().orElse("java");
+  private final String classpath;
+  private final Path cdsDir;
+
+  StartupTest(Path cdsDir) throws IOException {
+    this.cdsDir = cdsDir;
+    this.classpath = String.join(File.pathSeparator, Files.readAllLines(cdsDir.resolve("classpath.txt")));
+  }
+
+  public static void main(String[] args) throws Exception {
+    StartupTest startupTest = new StartupTest(Path.of(System.getProperty("startupTest.cdsDir", "build/cds")));
+    if (args.length > 0 && "archive".equals(args[0])) {
+      startupTest.archive();
+    } else {
+      startupTest.measure(Integer.getInteger("startupTest.runs", 5));
+    }
+  }
+
+  void archive() throws Exception {
+    Path classList = cdsDir.resolve("classes.lst");
+    Path archive = cdsDir.resolve("app.jsa");
+
+    long millis = timeToFirstList(List.of("-Xshare:off", "-XX:DumpLoadedClassList=" + classList), List.of());
+    System.out.printf("Training run answered after %d ms%n", millis);
+
+    Process dump = new ProcessBuilder(java, "-Xshare:dump", "-XX:SharedClassListFile=" + classList,
+        "-XX:SharedArchiveFile=" + archive, "-cp", classpath).inheritIO().start();
+    if (dump.waitFor() != 0) {
+      throw new IllegalStateException("Dumping the CDS archive failed");
+    }
+    System.out.printf("Wrote %s%n", archive);
+  }
+
+  void measure(int runs) throws Exception {
+    Map<String, List<String>> jvmOptions = new LinkedHashMap<>();
+    Map<String, List<String>> arguments = new LinkedHashMap<>();
+    jvmOptions.put("default", List.of());
+    arguments.put("default", List.of());
+    jvmOptions.put("faststart", List.of());
+    arguments.put("faststart", List.of("--spring.profiles.active=faststart"));
+    Path archive = cdsDir.resolve("app.jsa");
+    if (Files.exists(archive)) {
+      jvmOptions.put("faststart + AppCDS", List.of("-Xshare:auto", "-XX:SharedArchiveFile=" + archive));
+      arguments.put("faststart + AppCDS", List.of("--spring.profiles.active=faststart"));
+    } else {
+      System.out.println("No CDS archive found, run ./gradlew appCds to include it");
+    }
+
+    System.out.printf("%-20s %8s %8s %8s%n", "Variant", "min", "median", "max");
+    for (String variant : jvmOptions.keySet()) {
+      List<Long> millis = new ArrayList<>();
+      for (int i = 0; i < runs; i++) {
+        millis.add(timeToFirstList(jvmOptions.get(variant), arguments.get(variant)));
+      }
+      Collections.sort(millis);
+      System.out.printf("%-20s %6d ms %6d ms %6d ms%n", variant, millis.get(0), millis.get(millis.size() / 2),
+          millis.get(millis.size() - 1));
+    }
+  }
+
+  private long timeToFirstList(List<String> jvmOptions, List<String> arguments) throws Exception {
+    int port = freePort();
+    List<String> command = new ArrayList<>();
+    command.add(java);
+    command.addAll(jvmOptions);
+    command.addAll(Arrays.asList("-cp", classpath, MAIN_CLASS, "--server.port=" + port,
+        "--logging.level.root=WARN", "--spring.datasource.url=jdbc:h2:mem:" + UUID.randomUUID(),
+        "--spring.jpa.hibernate.ddl-auto=create-drop"));
+    command.addAll(arguments);
+
+    HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/planets")).build();
+    long start = System.nanoTime();
+    Process process = new ProcessBuilder(command).redirectErrorStream(true)
+        .redirectOutput(ProcessBuilder.Redirect.DISCARD).start();
+    try {
+      while (System.nanoTime() - start < STARTUP_TIMEOUT.toNanos()) {
+        if (!process.isAlive()) {
+          throw new IllegalStateException("Application exited with " + process.exitValue());
+        }
+        try {
+          if (client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+            return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+          }
+        } catch (ConnectException ex) {
+          // Not listening yet.
+        }
+        Thread.sleep(10);
+      }
+      throw new IllegalStateException("No successful GET /planets within " + STARTUP_TIMEOUT);
+    } finally {
+      process.destroy();
+      process.waitFor();
+    }
+  }
+
+  private static int freePort() throws IOException {
+    try (ServerSocket socket = new ServerSocket(0)) {
+      return socket.getLocalPort();
+    }
+  }
+}
@@ -0,0 +1,174 @@
+package dev.lobophf.swplanetapi;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import dev.lobophf.swplanetapi.common.PlanetConstants;
+import dev.lobophf.swplanetapi.domain.Planet;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.context.jdbc.Sql.ExecutionPhase;
+import org.assertj.core.api.Assertions;
+
+// Behavior shared by the servlet and the reactive implementations of /planets.
+@Sql(scripts = { "/import_planets.sql" }, executionPhase = ExecutionPhase.BEFORE_TEST_METHOD)
+@Sql(scripts = { "/remove_planets.sql" }, executionPhase = ExecutionPhase.AFTER_TEST_METHOD)
+@SpringBootTest(webEnvironment = WebEnvironment.RANDOM_PORT)
+public abstract class AbstractPlanetIT {
+
+  @Autowired
+  protected TestRestTemplate restTemplate;
+
+  @Test
+  public void createPlanet_ReturnsCreated() {
+    ResponseEntity<Planet> sut = restTemplate.postForEntity("/planets", PlanetConstants.PLANET, Planet.class);
+    Assertions.assertThat(sut.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+    Assertions.assertThat(sut.getBody().getId()).isNotNull();
+    Assertions.assertThat(sut.getBody().getName()).isEqualTo(PlanetConstants.PLANET.getName());
+    Assertions.assertThat(sut.getBody().getClimate()).isEqualTo(PlanetConstants.PLANET.getClimate());
+    Assertions.assertThat(sut.getBody().getTerrain()).isEqualTo(PlanetConstants.PLANET.getTerrain());
+  }
+
+  @Test
+  public void getPlanet_ReturnsPlanet() {
+    ResponseEntity<Planet> sut = restTemplate.getForEntity("/planets/1", Planet.class);
+    Assertions.assertThat(sut.getStatusCode()).isEqualTo(HttpStatus.OK);
+    Assertions.assertThat(sut.getBody()).isEqualTo(PlanetConstants.TATOOINE);
+  }
+
+  @Test
+  public void createAndGetPlanet_withCbor_returnsCbor() {
+    HttpHeaders headers = new HttpHeaders();
+    headers.setContentType(MediaType.APPLICATION_CBOR);
+    headers.setAccept(List.of(MediaType.APPLICATION_CBOR));
+
+    ResponseEntity<Planet> created = restTemplate.exchange("/planets", HttpMethod.POST,
+        new HttpEntity<>(PlanetConstants.PLANET, headers), Planet.class);
+    ResponseEntity<Planet> sut = restTemplate.exchange("/planets/" + created.getBody().getId(), HttpMethod.GET,
+        new HttpEntity<>(headers), Planet.class);
+
+    Assertions.assertThat(created.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+    Assertions.assertThat(sut.getHeaders().getContentType()).isEqualTo(MediaType.APPLICATION_CBOR);
+    Assertions.assertThat(sut.getBody()).isEqualTo(created.getBody());
+  }
+
+  @Test
+  public void getPlanetByName_returnsPlanet() {
+    ResponseEntity<Planet> sut = restTemplate.getForEntity("/planets/name/" + PlanetConstants.TATOOINE.getName(),
+        Planet.class);
+    Assertions.assertThat(sut.getStatusCode()).isEqualTo(HttpStatus.OK);
+    Assertions.assertThat(sut.getBody()).isEqualTo(PlanetConstants.TATOOINE);
+  }
+
+  @Test
+  public void listPlanets_returnsAllPlanets() {
+    ResponseEntity<Planet[]> sut = restTemplate.getForEntity("/planets/", Planet[].class);
+    Assertions.assertThat(sut.getStatusCode()).isEqualTo(HttpStatus.OK);
+    Assertions.assertThat(sut.getBody()).hasSize(3);
+    Assertions.assertThat(sut.getBody()[0]).isEqualTo(PlanetConstants.TATOOINE);
+  }
+
+  @Test
+  public void listPlanets_byClimate_returnsPlanets() {
+    ResponseEntity<Planet[]> sut = restTemplate
+        .getForEntity("/planets?climate=" + PlanetConstants.TATOOINE.getClimate(), Planet[].class);
+    Assertions.assertThat(sut.getStatusCode()).isEqualTo(HttpStatus.OK);
+    Assertions.assertThat(sut.getBody()).hasSize(1);
+    Assertions.assertThat(sut.getBody()[0]).isEqualTo(PlanetConstants.TATOOINE);
+  }
+
+  @Test
+  public void listPlanets_byTerrain_returnsPlanets() {
+    ResponseEntity<Planet[]> sut = restTemplate
+        .getForEntity("/planets?terrain=" + PlanetConstants.TATOOINE.getTerrain(), Planet[].class);
+    Assertions.assertThat(sut.getStatusCode()).isEqualTo(HttpStatus.OK);
+    Assertions.assertThat(sut.getBody()).hasSize(1);
+    Assertions.assertThat(sut.getBody()[0]).isEqualTo(PlanetConstants.TATOOINE);
+  }
+
+  @Test
+  public void listPlanets_bySingleTerrainToken_returnsPlanets() {
+    ResponseEntity<Planet[]> sut = restTemplate.getForEntity("/planets?terrain=mountains", Planet[].class);
+    Assertions.assertThat(sut.getStatusCode()).isEqualTo(HttpStatus.OK);
+    Assertions.assertThat(sut.getBody()).containsExactly(PlanetConstants.ALDERAAN);
+  }
+
+  @Test
+  public void listPlanets_byExactTerrain_returnsPlanets() {
+    ResponseEntity<Planet[]> sut = restTemplate.getForEntity("/planets?exact=true&terrain=mountains", Planet[].class);
+    Assertions.assertThat(sut.getStatusCode()).isEqualTo(HttpStatus.OK);
+    Assertions.assertThat(sut.getBody()).isEmpty();
+  }
+
+  @Test
+  public void listPlanets_byPage_returnsPlanetsInIdOrder() {
+    ResponseEntity<Planet[]> firstPage = restTemplate.getForEntity("/planets?limit=2", Planet[].class);
+    String nextCursor = firstPage.getHeaders().getFirst("X-Next-Cursor");
+    ResponseEntity<Planet[]> secondPage = restTemplate.getForEntity("/planets?limit=2&after=" + nextCursor,
+        Planet[].class);
+
+    Assertions.assertThat(firstPage.getStatusCode()).isEqualTo(HttpStatus.OK);
+    Assertions.assertThat(firstPage.getBody()).containsExactly(PlanetConstants.TATOOINE, PlanetConstants.ALDERAAN);
+    Assertions.assertThat(secondPage.getStatusCode()).isEqualTo(HttpStatus.OK);
+    Assertions.assertThat(secondPage.getBody()).containsExactly(PlanetConstants.YAVINIV);
+    Assertions.assertThat(secondPage.getHeaders().getFirst("X-Next-Cursor")).isNull();
+  }
+
+  @Test
+  public void removePlanet_returnsNoContent() {
+    ResponseEntity<Void> sut = restTemplate.exchange("/planets/" + PlanetConstants.TATOOINE.getId(), HttpMethod.DELETE,
+        null,
+        Void.class);
+    Assertions.assertThat(sut.getStatusCode()).isEqualTo(HttpStatus.NO_CONTENT);
+  }
+
+  @Test
+  public void removePlanet_withUnexistingId_returnsNotFound() {
+    ResponseEntity<Void> sut = restTemplate.exchange("/planets/99", HttpMethod.DELETE, null, Void.class);
+    Assertions.assertThat(sut.getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+  }
+
+  @Test
+  public void createPlanet_withExistingName_returnsConflict() {
+    ResponseEntity<String> sut = restTemplate.postForEntity("/planets",
+        new Planet(PlanetConstants.TATOOINE.getName(), "arid", "desert"), String.class);
+    Assertions.assertThat(sut.getStatusCode()).isEqualTo(HttpStatus.CONFLICT);
+  }
+
+  @Test
+  public void createPlanet_withInvalidData_returnsUnprocessableEntity() {
+    ResponseEntity<String> sut = restTemplate.postForEntity("/planets", PlanetConstants.INVALID_PLANET, String.class);
+    Assertions.assertThat(sut.getStatusCode()).isEqualTo(HttpStatus.UNPROCESSABLE_ENTITY);
+  }
+
+  @Test
+  public void getPlanet_withMatchingETag_returnsNotModified() {
+    ResponseEntity<Planet> planet = restTemplate.getForEntity("/planets/1", Planet.class);
+    HttpHeaders headers = new HttpHeaders();
+    headers.setIfNoneMatch(planet.getHeaders().getETag());
+
+    ResponseEntity<Planet> sut = restTemplate.exchange("/planets/1", HttpMethod.GET, new HttpEntity<>(headers),
+        Planet.class);
+    Assertions.assertThat(sut.getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+  }
+
+  @Test
+  public void streamPlanets_returnsOnePlanetPerLine() {
+    HttpHeaders headers = new HttpHeaders();
+    headers.setAccept(List.of(MediaType.parseMediaType("application/x-ndjson")));
+
+    ResponseEntity<String> sut = restTemplate.exchange("/planets?climate=temperate", HttpMethod.GET,
+        new HttpEntity<>(headers), String.class);
+    Assertions.assertThat(sut.getStatusCode()).isEqualTo(HttpStatus.OK);
+    Assertions.assertThat(sut.getBody().split("\n")).hasSize(2);
+  }
+}
@@ -0,0 +1,75 @@
+package dev.lobophf.swplanetapi;
+
+import org.junit.jupiter.api.Test;
+import dev.lobophf.swplanetapi.common.PlanetConstants;
+import dev.lobophf.swplanetapi.domain.Planet;
+import dev.lobophf.swplanetapi.domain.PlanetBatchResult;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.context.jdbc.Sql.ExecutionPhase;
+import org.testcontainers.containers.MySQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.assertj.core.api.Assertions;
+
+// Runs the upsert against MySQL, whose INSERT ... ON DUPLICATE KEY UPDATE
+// H2 cannot stand in for. Skipped where Docker is not available.
+@Testcontainers(disabledWithoutDocker = true)
+@Sql(scripts = { "/import_planets.sql" }, executionPhase = ExecutionPhase.BEFORE_TEST_METHOD)
+@Sql(scripts = { "/remove_planets.sql" }, executionPhase = ExecutionPhase.AFTER_TEST_METHOD)
+@SpringBootTest(webEnvironment = WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("it")
+public class MySqlPlanetIT {
+  @Container
+  private static final MySQLContainer<?> MYSQL = new MySQLContainer<>("mysql:8.0");
+
+  @DynamicPropertySource
+  static void mySqlProperties(DynamicPropertyRegistry registry) {
+    registry.add("spring.datasource.url", MYSQL::getJdbcUrl);
+    registry.add("spring.datasource.username", MYSQL::getUsername);
+    registry.add("spring.datasource.password", MYSQL::getPassword);
+    registry.add("spring.jpa.hibernate.ddl-auto", () -> "create-drop");
+  }
+
+  @Autowired
+  private TestRestTemplate restTemplate;
+
+  @Test
+  public void upsertPlanets_withIdenticalValues_reportsUnchanged() {
+    long version = catalogVersion();
+
+    ResponseEntity<PlanetBatchResult[]> sut = restTemplate.exchange("/planets", HttpMethod.PUT,
+        new HttpEntity<>(new Planet[] { PlanetConstants.TATOOINE, PlanetConstants.ALDERAAN }),
+        PlanetBatchResult[].class);
+
+    Assertions.assertThat(sut.getBody()).extracting(PlanetBatchResult::getStatus)
+        .containsExactly(PlanetBatchResult.Status.UNCHANGED, PlanetBatchResult.Status.UNCHANGED);
+    Assertions.assertThat(catalogVersion()).isEqualTo(version);
+  }
+
+  @Test
+  public void upsertPlanets_withNewAndChangedValues_reportsEachStatus() {
+    ResponseEntity<PlanetBatchResult[]> sut = restTemplate.exchange("/planets", HttpMethod.PUT,
+        new HttpEntity<>(new Planet[] { PlanetConstants.TATOOINE, new Planet("Alderaan", "frozen", "ashes"),
+            new Planet("Dagobah", "murky", "swamp") }),
+        PlanetBatchResult[].class);
+
+    Assertions.assertThat(sut.getBody()).extracting(PlanetBatchResult::getStatus)
+        .containsExactly(PlanetBatchResult.Status.UNCHANGED, PlanetBatchResult.Status.UPDATED,
+            PlanetBatchResult.Status.CREATED);
+  }
+
+  private long catalogVersion() {
+    String eTag = restTemplate.getForEntity("/planets", Planet[].class).getHeaders().getETag();
+    return Long.parseLong(eTag.replaceAll("\\D", ""));
+  }
+}
@@ -1,85 +1,246 @@
 package dev.lobophf.swplanetapi;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+
 import org.junit.jupiter.api.Test;
 import dev.lobophf.swplanetapi.common.PlanetConstants;
 import dev.lobophf.swplanetapi.domain.Planet;
-import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.boot.test.context.SpringBootTest;
-import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
-import org.springframework.boot.test.web.client.TestRestTemplate;
+import dev.lobophf.swplanetapi.domain.PlanetBatchResult;
+import dev.lobophf.swplanetapi.domain.PlanetLookup;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.test.context.ActiveProfiles;
-import org.springframework.test.context.jdbc.Sql;
-import org.springframework.test.context.jdbc.Sql.ExecutionPhase;
 import org.assertj.core.api.Assertions;
+import com.fasterxml.jackson.databind.JsonNode;
 
 @ActiveProfiles("it")
-@Sql(scripts = { "/import_planets.sql" }, executionPhase = ExecutionPhase.BEFORE_TEST_METHOD)
-@Sql(scripts = { "/remove_planets.sql" }, executionPhase = ExecutionPhase.AFTER_TEST_METHOD)
-@SpringBootTest(webEnvironment = WebEnvironment.RANDOM_PORT)
-public class PlanetIT {
+public class PlanetIT extends AbstractPlanetIT {
+  @Test
+  public void createPlanets_inBatch_returnsResultPerPlanet() {
+    Planet[] planets = { new Planet("Kamino", "temperate", "ocean"), PlanetConstants.TATOOINE };
+    ResponseEntity<PlanetBatchResult[]> sut = restTemplate.postForEntity("/planets/batch", planets,
+        PlanetBatchResult[].class);
+    Assertions.assertThat(sut.getStatusCode()).isEqualTo(HttpStatus.OK);
+    Assertions.assertThat(sut.getBody()).hasSize(2);
+    Assertions.assertThat(sut.getBody()[0].getStatus()).isEqualTo(PlanetBatchResult.Status.CREATED);
+    Assertions.assertThat(sut.getBody()[0].getPlanet().getId()).isNotNull();
+    Assertions.assertThat(sut.getBody()[1].getStatus()).isEqualTo(PlanetBatchResult.Status.CONFLICT);
+  }
+
+  @Test
+  public void upsertPlanet_createsThenUpdates() {
+    HttpEntity<Planet> kamino = new HttpEntity<>(new Planet("temperate", "ocean"));
+    HttpEntity<Planet> stormyKamino = new HttpEntity<>(new Planet("stormy", "ocean"));
+
+    ResponseEntity<Planet> created = restTemplate.exchange("/planets/name/Kamino", HttpMethod.PUT, kamino,
+        Planet.class);
+    ResponseEntity<Planet> unchanged = restTemplate.exchange("/planets/name/Kamino", HttpMethod.PUT, kamino,
+        Planet.class);
+    ResponseEntity<Planet> updated = restTemplate.exchange("/planets/name/Kamino", HttpMethod.PUT, stormyKamino,
+        Planet.class);
 
-  @Autowired
-  private TestRestTemplate restTemplate;
+    Assertions.assertThat(created.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+    Assertions.assertThat(unchanged.getStatusCode()).isEqualTo(HttpStatus.OK);
+    Assertions.assertThat(unchanged.getHeaders().getETag()).isEqualTo(created.getHeaders().getETag());
+    Assertions.assertThat(updated.getStatusCode()).isEqualTo(HttpStatus.OK);
+    Assertions.assertThat(updated.getBody())
+        .isEqualTo(new Planet(created.getBody().getId(), "Kamino", "stormy", "ocean"));
+    Assertions.assertThat(updated.getHeaders().getETag()).isNotEqualTo(created.getHeaders().getETag());
+  }
 
   @Test
-  public void createPlanet_ReturnsCreated() {
-    ResponseEntity<Planet> sut = restTemplate.postForEntity("/planets", PlanetConstants.PLANET, Planet.class);
-    Assertions.assertThat(sut.getStatusCode()).isEqualTo(HttpStatus.CREATED);
-    Assertions.assertThat(sut.getBody().getId()).isNotNull();
-    Assertions.assertThat(sut.getBody().getName()).isEqualTo(PlanetConstants.PLANET.getName());
-    Assertions.assertThat(sut.getBody().getClimate()).isEqualTo(PlanetConstants.PLANET.getClimate());
-    Assertions.assertThat(sut.getBody().getTerrain()).isEqualTo(PlanetConstants.PLANET.getTerrain());
+  public void upsertPlanets_inBatch_returnsResultPerPlanet() {
+    Planet[] planets = { new Planet("Kamino", "temperate", "ocean"), PlanetConstants.TATOOINE };
+    ResponseEntity<PlanetBatchResult[]> sut = restTemplate.exchange("/planets", HttpMethod.PUT,
+        new HttpEntity<>(planets), PlanetBatchResult[].class);
+    Assertions.assertThat(sut.getStatusCode()).isEqualTo(HttpStatus.OK);
+    Assertions.assertThat(sut.getBody()).extracting(PlanetBatchResult::getStatus)
+        .containsExactly(PlanetBatchResult.Status.CREATED, PlanetBatchResult.Status.UNCHANGED);
+    Assertions.assertThat(sut.getBody()[1].getPlanet()).isEqualTo(PlanetConstants.TATOOINE);
   }
 
+  // MySqlPlanetIT covers the same case on MySQL.
   @Test
-  public void getPlanet_ReturnsPlanet() {
-    ResponseEntity<Planet> sut = restTemplate.getForEntity("/planets/1", Planet.class);
+  public void upsertPlanets_withIdenticalValues_leavesCatalogUnchanged() {
+    long version = catalogVersion();
+
+    ResponseEntity<PlanetBatchResult[]> sut = restTemplate.exchange("/planets", HttpMethod.PUT,
+        new HttpEntity<>(new Planet[] { PlanetConstants.TATOOINE, PlanetConstants.ALDERAAN }),
+        PlanetBatchResult[].class);
+    ResponseEntity<JsonNode> changes = restTemplate.getForEntity("/planets/changes?since=" + version, JsonNode.class);
+
+    Assertions.assertThat(sut.getBody()).extracting(PlanetBatchResult::getStatus)
+        .containsExactly(PlanetBatchResult.Status.UNCHANGED, PlanetBatchResult.Status.UNCHANGED);
+    Assertions.assertThat(catalogVersion()).isEqualTo(version);
+    Assertions.assertThat(changes.getBody().get("changes")).isEmpty();
+  }
+
+  @Test
+  public void removePlanets_byIds_returnsDeletedCount() {
+    ResponseEntity<String> sut = restTemplate.exchange("/planets?ids=" + PlanetConstants.TATOOINE.getId() + ","
+        + PlanetConstants.ALDERAAN.getId() + ",99", HttpMethod.DELETE, null, String.class);
+    ResponseEntity<Planet[]> remaining = restTemplate.getForEntity("/planets", Planet[].class);
+
     Assertions.assertThat(sut.getStatusCode()).isEqualTo(HttpStatus.OK);
-    Assertions.assertThat(sut.getBody()).isEqualTo(PlanetConstants.TATOOINE);
+    Assertions.assertThat(sut.getBody()).isEqualTo("{\"deleted\":2}");
+    Assertions.assertThat(remaining.getBody()).containsExactly(PlanetConstants.YAVINIV);
   }
 
   @Test
-  public void getPlanetByName_returnsPlanet() {
-    ResponseEntity<Planet> sut = restTemplate.getForEntity("/planets/name/" + PlanetConstants.TATOOINE.getName(),
-        Planet.class);
+  public void importPlanets_fromCsv_createsPlanetsAndReportsErrors() {
+    HttpHeaders headers = new HttpHeaders();
+    headers.setContentType(MediaType.parseMediaType("text/csv"));
+    String csv = "name,climate,terrain\n"
+        + "Kamino,temperate,ocean\n"
+        + "Tatooine,arid,desert\n"
+        + "Hoth,,tundra\n";
+
+    ResponseEntity<JsonNode> sut = restTemplate.postForEntity("/planets/import", new HttpEntity<>(csv, headers),
+        JsonNode.class);
+    ResponseEntity<Planet> kamino = restTemplate.getForEntity("/planets/name/Kamino", Planet.class);
+
     Assertions.assertThat(sut.getStatusCode()).isEqualTo(HttpStatus.OK);
-    Assertions.assertThat(sut.getBody()).isEqualTo(PlanetConstants.TATOOINE);
+    Assertions.assertThat(sut.getBody().get("created").asLong()).isEqualTo(1);
+    Assertions.assertThat(sut.getBody().get("errors").findValuesAsText("row")).containsExactlyInAnyOrder("1", "2");
+    Assertions.assertThat(kamino.getStatusCode()).isEqualTo(HttpStatus.OK);
   }
 
   @Test
-  public void listPlanets_returnsAllPlanets() {
-    ResponseEntity<Planet[]> sut = restTemplate.getForEntity("/planets/", Planet[].class);
+  public void exportPlanets_afterCheckpoint_returnsGzippedRemainingPlanets() throws IOException {
+    ResponseEntity<byte[]> sut = restTemplate.getForEntity(
+        "/planets/export?format=ndjson&after=" + PlanetConstants.TATOOINE.getId(), byte[].class);
+
+    String[] lines;
+    try (GZIPInputStream input = new GZIPInputStream(new ByteArrayInputStream(sut.getBody()))) {
+      lines = new String(input.readAllBytes(), StandardCharsets.UTF_8).split("\n");
+    }
+    Assertions.assertThat(sut.getStatusCode()).isEqualTo(HttpStatus.OK);
+    Assertions.assertThat(lines).hasSize(2);
+    Assertions.assertThat(lines[0]).contains(PlanetConstants.ALDERAAN.getName());
+    Assertions.assertThat(lines[1]).contains(PlanetConstants.YAVINIV.getName());
+  }
+
+  @Test
+  public void lookupPlanets_byIds_returnsPlanetsInRequestedOrder() {
+    ResponseEntity<PlanetLookup> sut = restTemplate.getForEntity("/planets?ids=3,1,99", PlanetLookup.class);
+
     Assertions.assertThat(sut.getStatusCode()).isEqualTo(HttpStatus.OK);
-    Assertions.assertThat(sut.getBody()).hasSize(3);
-    Assertions.assertThat(sut.getBody()[0]).isEqualTo(PlanetConstants.TATOOINE);
+    Assertions.assertThat(sut.getBody().getPlanets()).containsExactly(PlanetConstants.YAVINIV, PlanetConstants.TATOOINE);
+    Assertions.assertThat(sut.getBody().getMissingIds()).containsExactly(99L);
   }
 
   @Test
-  public void listPlanets_byClimate_returnsPlanets() {
-    ResponseEntity<Planet[]> sut = restTemplate
-        .getForEntity("/planets?climate=" + PlanetConstants.TATOOINE.getClimate(), Planet[].class);
+  public void searchPlanets_byPrefix_followsCreateAndRemove() {
+    Planet dagobah = restTemplate.postForEntity("/planets", new Planet("Dagobah", "murky", "swamp, jungles"),
+        Planet.class).getBody();
+
+    ResponseEntity<Planet[]> found = restTemplate.getForEntity("/planets/search?prefix=DAGÓ", Planet[].class);
+    restTemplate.delete("/planets/" + dagobah.getId());
+    ResponseEntity<Planet[]> removed = restTemplate.getForEntity("/planets/search?prefix=dago", Planet[].class);
+
+    Assertions.assertThat(found.getStatusCode()).isEqualTo(HttpStatus.OK);
+    Assertions.assertThat(found.getBody()).containsExactly(dagobah);
+    Assertions.assertThat(removed.getBody()).isEmpty();
+  }
+
+  @Test
+  public void facets_followCreateAndRemove() {
+    Planet dagobah = restTemplate.postForEntity("/planets", new Planet("Dagobah", "murky, temperate", "swamp"),
+        Planet.class).getBody();
+    ResponseEntity<JsonNode> created = restTemplate.getForEntity("/planets/facets", JsonNode.class);
+    restTemplate.delete("/planets/" + dagobah.getId());
+    ResponseEntity<JsonNode> removed = restTemplate.getForEntity("/planets/facets", JsonNode.class);
+
+    Assertions.assertThat(created.getStatusCode()).isEqualTo(HttpStatus.OK);
+    Assertions.assertThat(created.getBody().at("/climate/temperate").asLong()).isEqualTo(3);
+    Assertions.assertThat(created.getBody().at("/terrain/swamp").asLong()).isEqualTo(1);
+    Assertions.assertThat(removed.getBody().at("/climate/temperate").asLong()).isEqualTo(2);
+    Assertions.assertThat(removed.getBody().get("terrain").has("swamp")).isFalse();
+  }
+
+  @Test
+  public void facets_afterConcurrentDoubleRemove_areDecrementedOnce() {
+    Planet dagobah = restTemplate.postForEntity("/planets", new Planet("Dagobah", "murky, temperate", "swamp"),
+        Planet.class).getBody();
+    List<CompletableFuture<Void>> removes = List.of(
+        CompletableFuture.runAsync(() -> restTemplate.delete("/planets/" + dagobah.getId())),
+        CompletableFuture.runAsync(() -> restTemplate.delete("/planets/" + dagobah.getId())));
+    removes.forEach(CompletableFuture::join);
+
+    ResponseEntity<JsonNode> sut = restTemplate.getForEntity("/planets/facets", JsonNode.class);
+
+    Assertions.assertThat(sut.getBody().at("/climate/temperate").asLong()).isEqualTo(2);
+    Assertions.assertThat(sut.getBody().get("terrain").has("swamp")).isFalse();
+  }
+
+  @Test
+  public void changes_sinceCatalogVersion_returnsCreateAndRemove() {
+    long since = catalogVersion();
+    Planet dagobah = restTemplate.postForEntity("/planets", new Planet("Dagobah", "murky", "swamp"), Planet.class)
+        .getBody();
+    restTemplate.delete("/planets/" + dagobah.getId());
+
+    ResponseEntity<JsonNode> sut = restTemplate.getForEntity("/planets/changes?since=" + since, JsonNode.class);
+
     Assertions.assertThat(sut.getStatusCode()).isEqualTo(HttpStatus.OK);
-    Assertions.assertThat(sut.getBody()).hasSize(1);
-    Assertions.assertThat(sut.getBody()[0]).isEqualTo(PlanetConstants.TATOOINE);
+    Assertions.assertThat(sut.getBody().get("changes").findValuesAsText("type")).containsExactly("SAVED", "REMOVED");
+    Assertions.assertThat(sut.getBody().at("/changes/0/planet/name").asText()).isEqualTo("Dagobah");
+    Assertions.assertThat(sut.getBody().at("/changes/1/planetId").asLong()).isEqualTo(dagobah.getId());
+    Assertions.assertThat(sut.getBody().get("next").asLong()).isEqualTo(since + 2);
   }
 
   @Test
-  public void listPlanets_byTerrain_returnsPlanets() {
-    ResponseEntity<Planet[]> sut = restTemplate
-        .getForEntity("/planets?terrain=" + PlanetConstants.TATOOINE.getTerrain(), Planet[].class);
+  public void changes_withLongPoll_returnsOnceAPlanetIsCreated() throws Exception {
+    long since = catalogVersion();
+    CompletableFuture<ResponseEntity<JsonNode>> poll = CompletableFuture.supplyAsync(
+        () -> restTemplate.getForEntity("/planets/changes?since=" + since + "&wait=10", JsonNode.class));
+    Thread.sleep(200);
+
+    restTemplate.postForEntity("/planets", new Planet("Dagobah", "murky", "swamp"), Planet.class);
+    ResponseEntity<JsonNode> sut = poll.get(10, TimeUnit.SECONDS);
+
     Assertions.assertThat(sut.getStatusCode()).isEqualTo(HttpStatus.OK);
-    Assertions.assertThat(sut.getBody()).hasSize(1);
-    Assertions.assertThat(sut.getBody()[0]).isEqualTo(PlanetConstants.TATOOINE);
+    Assertions.assertThat(sut.getBody().at("/changes/0/planet/name").asText()).isEqualTo("Dagobah");
   }
 
   @Test
-  public void removePlanet_returnsNoContent() {
-    ResponseEntity<Void> sut = restTemplate.exchange("/planets/" + PlanetConstants.TATOOINE.getId(), HttpMethod.DELETE,
-        null,
-        Void.class);
-    Assertions.assertThat(sut.getStatusCode()).isEqualTo(HttpStatus.NO_CONTENT);
+  public void changes_withPrunedCursor_requiresResync() {
+    ResponseEntity<JsonNode> sut = restTemplate.getForEntity("/planets/changes?since=-1", JsonNode.class);
+
+    Assertions.assertThat(sut.getStatusCode()).isEqualTo(HttpStatus.GONE);
+    Assertions.assertThat(sut.getBody().get("version").asLong()).isEqualTo(catalogVersion());
+  }
+
+  @Test
+  public void prometheusEndpoint_exposesHotPathMetrics() {
+    restTemplate.getForEntity("/planets?terrain=desert", Planet[].class);
+
+    ResponseEntity<String> sut = restTemplate.getForEntity("/actuator/prometheus", String.class);
+
+    Assertions.assertThat(sut.getStatusCode()).isEqualTo(HttpStatus.OK);
+    Assertions.assertThat(sut.getBody())
+        .contains("http_server_requests_seconds_bucket")
+        .contains("planets_service_seconds_bucket{exception=\"none\",method=\"list\"")
+        .contains("planets_repository_seconds_count{exception=\"none\",method=\"findViews\"")
+        .contains("planets_http_statements_count{method=\"GET\",uri=\"/planets\"")
+        .contains("hibernate_statements")
+        .contains("hikaricp_connections_pending")
+        .contains("planets_concurrency_limit{kind=\"read\"")
+        .contains("planets_concurrency_rejected_total{kind=\"write\"");
+  }
+
+  private long catalogVersion() {
+    String eTag = restTemplate.getForEntity("/planets", Planet[].class).getHeaders().getETag();
+    return Long.parseLong(eTag.replaceAll("\\D", ""));
   }
 }
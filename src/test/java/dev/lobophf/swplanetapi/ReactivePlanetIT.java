@@ -0,0 +1,39 @@
+package dev.lobophf.swplanetapi;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import org.junit.jupiter.api.Test;
+import dev.lobophf.swplanetapi.domain.Planet;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.test.context.ActiveProfiles;
+import org.assertj.core.api.Assertions;
+
+@ActiveProfiles({ "reactive", "reactive-h2", "it" })
+public class ReactivePlanetIT extends AbstractPlanetIT {
+  @Autowired
+  private DatabaseClient databaseClient;
+
+  @Test
+  public void removePlanet_concurrentlyTwice_decrementsFacetsOnce() {
+    Planet dagobah = restTemplate.postForEntity("/planets", new Planet("Dagobah", "murky, temperate", "swamp"),
+        Planet.class).getBody();
+    List<CompletableFuture<Void>> removes = List.of(
+        CompletableFuture.runAsync(() -> restTemplate.delete("/planets/" + dagobah.getId())),
+        CompletableFuture.runAsync(() -> restTemplate.delete("/planets/" + dagobah.getId())));
+    removes.forEach(CompletableFuture::join);
+
+    Assertions.assertThat(planetCount("CLIMATE", "temperate")).isEqualTo(2);
+    Assertions.assertThat(planetCount("TERRAIN", "swamp")).isZero();
+  }
+
+  private long planetCount(String kind, String token) {
+    return databaseClient.sql("SELECT planet_count FROM planet_facets WHERE kind = :kind AND token = :token")
+        .bind("kind", kind)
+        .bind("token", token)
+        .map((row, metadata) -> row.get("planet_count", Long.class))
+        .one()
+        .block();
+  }
+}
@@ -0,0 +1,76 @@
+package dev.lobophf.swplanetapi.concurrency;
+
+import org.assertj.core.api.Assertions;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+public class AdaptiveConcurrencyLimitTest {
+  private static final long FAST = TimeUnit.MILLISECONDS.toNanos(1);
+  private static final long SLOW = TimeUnit.MILLISECONDS.toNanos(10);
+
+  @Test
+  public void tryAcquire_OverLimit_ReturnsFalse() {
+    AdaptiveConcurrencyLimit sut = new AdaptiveConcurrencyLimit(2, 1, 10);
+
+    Assertions.assertThat(sut.tryAcquire()).isTrue();
+    Assertions.assertThat(sut.tryAcquire()).isTrue();
+    Assertions.assertThat(sut.tryAcquire()).isFalse();
+    Assertions.assertThat(sut.getInFlight()).isEqualTo(2);
+  }
+
+  @Test
+  public void release_WithSteadyLatencyAtLimit_GrowsLimit() {
+    AdaptiveConcurrencyLimit sut = new AdaptiveConcurrencyLimit(10, 1, 100);
+
+    for (int round = 0; round < 5; round++) {
+      int acquired = 0;
+      while (sut.tryAcquire()) {
+        acquired++;
+      }
+      for (int i = 0; i < acquired; i++) {
+        sut.release(FAST, false);
+      }
+    }
+
+    Assertions.assertThat(sut.getLimit()).isGreaterThan(10);
+    Assertions.assertThat(sut.getInFlight()).isZero();
+  }
+
+  @Test
+  public void release_WithGrowingLatency_ShrinksLimit() {
+    AdaptiveConcurrencyLimit sut = new AdaptiveConcurrencyLimit(50, 1, 100);
+    sut.tryAcquire();
+    sut.release(FAST, false);
+
+    for (int i = 0; i < 20; i++) {
+      sut.tryAcquire();
+      sut.release(SLOW, false);
+    }
+
+    Assertions.assertThat(sut.getLimit()).isLessThan(50).isGreaterThanOrEqualTo(1);
+  }
+
+  @Test
+  public void release_WhenOverloaded_BacksOff() {
+    AdaptiveConcurrencyLimit sut = new AdaptiveConcurrencyLimit(10, 1, 100);
+
+    sut.tryAcquire();
+    sut.release(FAST, true);
+
+    Assertions.assertThat(sut.getLimit()).isEqualTo(9);
+  }
+
+  @Test
+  public void release_NeverDropsBelowMinimum() {
+    AdaptiveConcurrencyLimit sut = new AdaptiveConcurrencyLimit(2, 1, 10);
+
+    for (int i = 0; i < 20; i++) {
+      sut.tryAcquire();
+      sut.release(FAST, true);
+    }
+
+    Assertions.assertThat(sut.getLimit()).isEqualTo(1);
+  }
+}
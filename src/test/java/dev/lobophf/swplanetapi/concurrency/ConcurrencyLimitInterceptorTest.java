@@ -0,0 +1,80 @@
+package dev.lobophf.swplanetapi.concurrency;
+
+import org.assertj.core.api.Assertions;
+
+import java.time.Duration;
+
+import javax.servlet.DispatcherType;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.method.HandlerMethod;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class ConcurrencyLimitInterceptorTest {
+  private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+  private final MockHttpServletResponse response = new MockHttpServletResponse();
+  private ConcurrencyLimitInterceptor sut;
+
+  @BeforeEach
+  public void beforeEach() {
+    sut = new ConcurrencyLimitInterceptor(meterRegistry, 1, 1, 1, 1, Duration.ofSeconds(2));
+  }
+
+  @Test
+  public void preHandle_OverReadLimit_ThrowsAndCountsRejection() {
+    Assertions.assertThat(sut.preHandle(request("GET"), response, handler("limited"))).isTrue();
+
+    Assertions.assertThatThrownBy(() -> sut.preHandle(request("GET"), response, handler("limited")))
+        .isInstanceOf(ConcurrencyLimitExceededException.class);
+    Assertions.assertThat(meterRegistry.get("planets.concurrency.rejected").tag("kind", "read").counter().count())
+        .isEqualTo(1);
+  }
+
+  @Test
+  public void preHandle_AfterCompletion_ReleasesPermit() {
+    MockHttpServletRequest first = request("POST");
+    sut.preHandle(first, response, handler("limited"));
+    sut.afterCompletion(first, response, handler("limited"), null);
+
+    Assertions.assertThat(sut.preHandle(request("POST"), response, handler("limited"))).isTrue();
+  }
+
+  @Test
+  public void preHandle_ReadsAndWrites_UseSeparateLimits() {
+    sut.preHandle(request("GET"), response, handler("limited"));
+
+    Assertions.assertThat(sut.preHandle(request("DELETE"), response, handler("limited"))).isTrue();
+  }
+
+  @Test
+  public void preHandle_ExemptHandlerOrAsyncDispatch_TakesNoPermit() {
+    MockHttpServletRequest asyncDispatch = request("GET");
+    asyncDispatch.setDispatcherType(DispatcherType.ASYNC);
+
+    sut.preHandle(request("GET"), response, handler("exempt"));
+    sut.preHandle(asyncDispatch, response, handler("limited"));
+
+    Assertions.assertThat(sut.preHandle(request("GET"), response, handler("limited"))).isTrue();
+  }
+
+  private static MockHttpServletRequest request(String method) {
+    return new MockHttpServletRequest(method, "/planets");
+  }
+
+  private static HandlerMethod handler(String name) {
+    return new HandlerMethod(new Handlers(), name);
+  }
+
+  static class Handlers {
+    public void limited() {
+    }
+
+    @ConcurrencyLimitExempt
+    public void exempt() {
+    }
+  }
+}
@@ -0,0 +1,113 @@
+package dev.lobophf.swplanetapi.datasource;
+
+import org.assertj.core.api.Assertions;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+
+import javax.sql.DataSource;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+public class ReplicaRoutingDataSourceTest {
+  private final DataSource primary = node("primary");
+  private final DataSource replica = node("replica");
+  private final ReadYourWritesTracker tracker = new ReadYourWritesTracker(Duration.ofMinutes(1));
+
+  @AfterEach
+  public void afterEach() {
+    tracker.clear();
+  }
+
+  @Test
+  public void readOnlyTransaction_ReadsFromReplica() {
+    ReplicaRoutingDataSource sut = new ReplicaRoutingDataSource(primary, List.of(replica), tracker);
+
+    Assertions.assertThat(nodeName(sut, true)).isEqualTo("replica");
+  }
+
+  @Test
+  public void readWriteTransaction_UsesPrimary() {
+    ReplicaRoutingDataSource sut = new ReplicaRoutingDataSource(primary, List.of(replica), tracker);
+
+    Assertions.assertThat(nodeName(sut, false)).isEqualTo("primary");
+  }
+
+  @Test
+  public void readOnlyTransaction_RoundRobinsAcrossReplicas() {
+    ReplicaRoutingDataSource sut = new ReplicaRoutingDataSource(primary, List.of(replica, node("other")), tracker);
+
+    Assertions.assertThat(List.of(nodeName(sut, true), nodeName(sut, true), nodeName(sut, true)))
+        .containsExactly("replica", "other", "replica");
+  }
+
+  @Test
+  public void readOnlyTransaction_WithUnhealthyReplica_FallsBackToPrimary() {
+    JdbcDataSource missing = new JdbcDataSource();
+    missing.setURL("jdbc:h2:mem:" + UUID.randomUUID() + ";IFEXISTS=TRUE");
+    ReplicaRoutingDataSource sut = new ReplicaRoutingDataSource(primary, List.of(missing), tracker);
+
+    sut.checkHealth();
+
+    Assertions.assertThat(sut.getHealthyReplicas()).isEmpty();
+    Assertions.assertThat(nodeName(sut, true)).isEqualTo("primary");
+  }
+
+  @Test
+  public void readOnlyTransaction_AfterRecentWrite_ReadsFromPrimaryForThatClientOnly() {
+    ReplicaRoutingDataSource sut = new ReplicaRoutingDataSource(primary, List.of(replica), tracker);
+
+    tracker.bind("writer");
+    tracker.recordWrite();
+    String writer = nodeName(sut, true);
+    tracker.bind("reader");
+    String reader = nodeName(sut, true);
+
+    Assertions.assertThat(writer).isEqualTo("primary");
+    Assertions.assertThat(reader).isEqualTo("replica");
+  }
+
+  @Test
+  public void readOnlyTransaction_InDecoratedTask_ReadsFromPrimaryAfterRecentWrite() throws Exception {
+    ReplicaRoutingDataSource sut = new ReplicaRoutingDataSource(primary, List.of(replica), tracker);
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+
+    tracker.bind("writer");
+    tracker.recordWrite();
+    FutureTask<String> task = new FutureTask<>(() -> nodeName(sut, true));
+    try {
+      executor.execute(tracker.decorate(task));
+      Assertions.assertThat(task.get(5, TimeUnit.SECONDS)).isEqualTo("primary");
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  private static DataSource node(String name) {
+    JdbcDataSource dataSource = new JdbcDataSource();
+    dataSource.setURL("jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1");
+    JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+    jdbcTemplate.execute("CREATE TABLE node (name VARCHAR(20))");
+    jdbcTemplate.update("INSERT INTO node VALUES (?)", name);
+    return dataSource;
+  }
+
+  private static String nodeName(ReplicaRoutingDataSource routingDataSource, boolean readOnly) {
+    DataSource dataSource = new LazyConnectionDataSourceProxy(routingDataSource);
+    TransactionTemplate transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+    transactionTemplate.setReadOnly(readOnly);
+    return transactionTemplate.execute(
+        status -> new JdbcTemplate(dataSource).queryForObject("SELECT name FROM node", String.class));
+  }
+}
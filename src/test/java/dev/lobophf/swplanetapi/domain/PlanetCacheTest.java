@@ -0,0 +1,92 @@
+package dev.lobophf.swplanetapi.domain;
+
+import dev.lobophf.swplanetapi.common.PlanetConstants;
+import org.assertj.core.api.Assertions;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import org.junit.jupiter.api.Test;
+
+public class PlanetCacheTest {
+  private final PlanetCache planetCache = new PlanetCache(true, 100, Duration.ofMinutes(1));
+
+  @Test
+  public void getPlanet_ById_LoadsOnlyOnMiss() {
+    AtomicInteger loads = new AtomicInteger();
+    Function<Long, Optional<Planet>> loader = id -> {
+      loads.incrementAndGet();
+      return Optional.of(PlanetConstants.TATOOINE);
+    };
+
+    Optional<Planet> first = planetCache.get(PlanetConstants.TATOOINE.getId(), loader);
+    Optional<Planet> second = planetCache.get(PlanetConstants.TATOOINE.getId(), loader);
+
+    Assertions.assertThat(first).contains(PlanetConstants.TATOOINE);
+    Assertions.assertThat(second).contains(PlanetConstants.TATOOINE);
+    Assertions.assertThat(loads).hasValue(1);
+  }
+
+  @Test
+  public void getPlanet_ByName_IsServedFromEntryCachedById() {
+    planetCache.put(PlanetConstants.ALDERAAN);
+
+    Optional<Planet> sut = planetCache.getByName(PlanetConstants.ALDERAAN.getName(), name -> Optional.empty());
+
+    Assertions.assertThat(sut).contains(PlanetConstants.ALDERAAN);
+  }
+
+  @Test
+  public void getPlanet_ByNameInOtherCase_GoesToLoader() {
+    planetCache.put(PlanetConstants.ALDERAAN);
+
+    Optional<Planet> sut = planetCache.getByName("ALDERAAN", name -> Optional.empty());
+
+    Assertions.assertThat(sut).isEmpty();
+  }
+
+  @Test
+  public void getPlanet_AfterEvict_LoadsAgain() {
+    planetCache.put(PlanetConstants.ALDERAAN);
+    planetCache.evict(PlanetConstants.ALDERAAN.getId());
+
+    Optional<Planet> byId = planetCache.get(PlanetConstants.ALDERAAN.getId(), id -> Optional.empty());
+    Optional<Planet> byName = planetCache.getByName(PlanetConstants.ALDERAAN.getName(), name -> Optional.empty());
+
+    Assertions.assertThat(byId).isEmpty();
+    Assertions.assertThat(byName).isEmpty();
+  }
+
+  @Test
+  public void getPlanet_WithDisabledCache_AlwaysLoads() {
+    PlanetCache disabledCache = new PlanetCache(false, 100, Duration.ofMinutes(1));
+    AtomicInteger loads = new AtomicInteger();
+
+    disabledCache.put(PlanetConstants.TATOOINE);
+    disabledCache.get(PlanetConstants.TATOOINE.getId(), id -> {
+      loads.incrementAndGet();
+      return Optional.of(PlanetConstants.TATOOINE);
+    });
+
+    Assertions.assertThat(loads).hasValue(1);
+  }
+
+  @Test
+  public void getPlanets_ByIds_LoadsOnlyMissingIds() {
+    planetCache.put(PlanetConstants.TATOOINE);
+
+    Map<Long, Planet> sut = planetCache.getAll(List.of(PlanetConstants.TATOOINE.getId(), PlanetConstants.ALDERAAN.getId()),
+        ids -> {
+          Assertions.assertThat(ids).containsExactly(PlanetConstants.ALDERAAN.getId());
+          return List.of(PlanetConstants.ALDERAAN);
+        });
+    Optional<Planet> cached = planetCache.get(PlanetConstants.ALDERAAN.getId(), id -> Optional.empty());
+
+    Assertions.assertThat(sut).containsOnlyKeys(PlanetConstants.TATOOINE.getId(), PlanetConstants.ALDERAAN.getId());
+    Assertions.assertThat(cached).contains(PlanetConstants.ALDERAAN);
+  }
+}
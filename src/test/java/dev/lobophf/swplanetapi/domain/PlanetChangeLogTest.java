@@ -0,0 +1,92 @@
+package dev.lobophf.swplanetapi.domain;
+
+import dev.lobophf.swplanetapi.common.PlanetConstants;
+import org.assertj.core.api.Assertions;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
+
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+
+@ExtendWith(MockitoExtension.class)
+public class PlanetChangeLogTest {
+  @InjectMocks
+  private PlanetChangeLog planetChangeLog;
+
+  @Mock
+  private PlanetChangeRepository planetChangeRepository;
+
+  @Mock
+  private CatalogVersionRepository catalogVersionRepository;
+
+  @Test
+  public void read_WithCursorBeforePrunedVersion_RequiresResync() {
+    givenVersions(20, 10);
+
+    Assertions.assertThatThrownBy(() -> planetChangeLog.read(9, 100))
+        .isInstanceOf(ResyncRequiredException.class)
+        .extracting("version").isEqualTo(20L);
+  }
+
+  @Test
+  public void read_WithPartialPage_ContinuesFromCurrentVersion() {
+    givenVersions(20, 10);
+    PlanetChange change = PlanetChange.saved(12, PlanetConstants.TATOOINE);
+    Mockito.when(planetChangeRepository.findSince(10, PageRequest.of(0, 100))).thenReturn(List.of(change));
+
+    PlanetChanges sut = planetChangeLog.read(10, 100);
+
+    Assertions.assertThat(sut.getChanges()).containsExactly(change);
+    Assertions.assertThat(sut.getNext()).isEqualTo(20);
+  }
+
+  @Test
+  public void read_WithFullPage_CompletesLastVersion() {
+    givenVersions(20, 0);
+    PlanetChange first = PlanetChange.saved(11, PlanetConstants.TATOOINE);
+    PlanetChange second = PlanetChange.saved(12, PlanetConstants.ALDERAAN);
+    PlanetChange third = PlanetChange.saved(12, PlanetConstants.YAVINIV);
+    Mockito.when(planetChangeRepository.findSince(10, PageRequest.of(0, 2))).thenReturn(List.of(first, second));
+    Mockito.when(planetChangeRepository.findRestOf(12, PlanetConstants.ALDERAAN.getId())).thenReturn(List.of(third));
+
+    PlanetChanges sut = planetChangeLog.read(10, 2);
+
+    Assertions.assertThat(sut.getChanges()).containsExactly(first, second, third);
+    Assertions.assertThat(sut.getNext()).isEqualTo(12);
+  }
+
+  @Test
+  public void prune_DeletesChangesOutsideRetention() {
+    Mockito.when(catalogVersionRepository.findById(CatalogVersion.PLANETS))
+        .thenReturn(Optional.of(new CatalogVersion(CatalogVersion.PLANETS, 10500)));
+    Mockito.when(catalogVersionRepository.advance(CatalogVersion.CHANGES_PRUNED, 500)).thenReturn(1);
+
+    planetChangeLog.prune();
+
+    Mockito.verify(planetChangeRepository).deleteThrough(500);
+  }
+
+  @Test
+  public void prune_WithinRetention_DoesNotDelete() {
+    Mockito.when(catalogVersionRepository.findById(CatalogVersion.PLANETS))
+        .thenReturn(Optional.of(new CatalogVersion(CatalogVersion.PLANETS, 42)));
+
+    planetChangeLog.prune();
+
+    Mockito.verify(planetChangeRepository, Mockito.never()).deleteThrough(ArgumentMatchers.anyLong());
+  }
+
+  private void givenVersions(long version, long prunedVersion) {
+    Mockito.when(catalogVersionRepository.findById(CatalogVersion.PLANETS))
+        .thenReturn(Optional.of(new CatalogVersion(CatalogVersion.PLANETS, version)));
+    Mockito.when(catalogVersionRepository.findById(CatalogVersion.CHANGES_PRUNED))
+        .thenReturn(Optional.of(new CatalogVersion(CatalogVersion.CHANGES_PRUNED, prunedVersion)));
+  }
+}
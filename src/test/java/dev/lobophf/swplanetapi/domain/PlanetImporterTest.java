@@ -0,0 +1,109 @@
+package dev.lobophf.swplanetapi.domain;
+
+import org.assertj.core.api.Assertions;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.validation.Validation;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+@ExtendWith(MockitoExtension.class)
+public class PlanetImporterTest {
+  @Mock
+  private PlanetService planetService;
+
+  private ThreadPoolTaskExecutor executor;
+
+  private PlanetImporter planetImporter;
+
+  @BeforeEach
+  public void beforeEach() {
+    executor = new PlanetImportConfiguration().planetImportExecutor(2);
+    executor.initialize();
+    planetImporter = new PlanetImporter(planetService, new ObjectMapper(),
+        Validation.buildDefaultValidatorFactory().getValidator(), executor);
+    ReflectionTestUtils.setField(planetImporter, "chunkSize", 2);
+  }
+
+  @AfterEach
+  public void afterEach() {
+    executor.shutdown();
+  }
+
+  @Test
+  public void importPlanets_FromCsv_CreatesValidRowsAndReportsErrors() throws IOException {
+    Mockito.when(planetService.createAll(ArgumentMatchers.any())).thenAnswer(invocation -> results(invocation.getArgument(0)));
+
+    PlanetImportReport sut = planetImporter.importPlanets(input("name,climate,terrain\n"
+        + "Kamino,temperate,ocean\n"
+        + "Hoth,,tundra\n"
+        + "Tatooine,arid,desert\n"
+        + "Endor,temperate,\"forests, mountains\"\n"), PlanetImporter.Format.CSV);
+
+    Assertions.assertThat(sut.getRows()).isEqualTo(4);
+    Assertions.assertThat(sut.getCreated()).isEqualTo(2);
+    Assertions.assertThat(sut.getFailed()).isEqualTo(2);
+    Assertions.assertThat(sut.getErrors()).extracting(PlanetImportReport.RowError::getRow).containsExactlyInAnyOrder(1L, 2L);
+    Mockito.verify(planetService).createAll(List.of(new Planet("Endor", "temperate", "forests, mountains")));
+  }
+
+  @Test
+  public void importPlanets_FromJsonWithUnreadableRow_SkipsRow() throws IOException {
+    Mockito.when(planetService.createAll(ArgumentMatchers.any())).thenAnswer(invocation -> results(invocation.getArgument(0)));
+
+    PlanetImportReport sut = planetImporter.importPlanets(input("["
+        + "{\"name\": \"Kamino\", \"climate\": \"temperate\", \"terrain\": \"ocean\"},"
+        + "{\"name\": {\"first\": \"Hoth\"}, \"climate\": \"frozen\", \"terrain\": \"tundra\"},"
+        + "{\"name\": \"Endor\", \"climate\": \"temperate\", \"terrain\": \"forests\"}]"), PlanetImporter.Format.JSON);
+
+    Assertions.assertThat(sut.getRows()).isEqualTo(3);
+    Assertions.assertThat(sut.getCreated()).isEqualTo(2);
+    Assertions.assertThat(sut.getErrors()).extracting(PlanetImportReport.RowError::getRow).containsExactly(1L);
+  }
+
+  @Test
+  public void importPlanets_WhenNameIsTakenConcurrently_RetriesChunk() throws IOException {
+    Mockito.when(planetService.createAll(ArgumentMatchers.any()))
+        .thenThrow(DataIntegrityViolationException.class)
+        .thenAnswer(invocation -> List.of(PlanetBatchResult.conflict(0, invocation.<List<Planet>>getArgument(0).get(0))));
+
+    PlanetImportReport sut = planetImporter.importPlanets(input("name,climate,terrain\nKamino,temperate,ocean\n"),
+        PlanetImporter.Format.CSV);
+
+    Assertions.assertThat(sut.getCreated()).isZero();
+    Assertions.assertThat(sut.getErrors()).extracting(PlanetImportReport.RowError::getMessage)
+        .containsExactly("name already exists");
+  }
+
+  private static List<PlanetBatchResult> results(List<Planet> planets) {
+    List<PlanetBatchResult> results = new ArrayList<>();
+    for (int i = 0; i < planets.size(); i++) {
+      Planet planet = planets.get(i);
+      results.add("Tatooine".equals(planet.getName()) ? PlanetBatchResult.conflict(i, planet)
+          : PlanetBatchResult.created(i, planet));
+    }
+    return results;
+  }
+
+  private static InputStream input(String content) {
+    return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+  }
+}
@@ -0,0 +1,83 @@
+package dev.lobophf.swplanetapi.domain;
+
+import dev.lobophf.swplanetapi.common.PlanetConstants;
+import org.assertj.core.api.Assertions;
+import org.mockito.Mockito;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+public class PlanetIndexTest {
+  @Mock
+  private PlanetChangeLog changeLog;
+
+  private PlanetIndex planetIndex;
+
+  @BeforeEach
+  public void beforeEach() {
+    Mockito.when(changeLog.snapshot()).thenReturn(new PlanetChanges(PlanetConstants.PLANETS.stream()
+        .map(planet -> PlanetChange.saved(10, planet)).collect(Collectors.toList()), 10));
+    Mockito.when(changeLog.read(10, 1000)).thenReturn(new PlanetChanges(List.of(), 10));
+    planetIndex = new PlanetIndex(true, changeLog);
+    planetIndex.build();
+  }
+
+  @Test
+  public void findPlanets_ByTokens_CombinesFilters() {
+    Assertions.assertThat(planetIndex.isReady()).isTrue();
+    Assertions.assertThat(planetIndex.getVersion()).isEqualTo(10);
+    Assertions.assertThat(planetIndex.find(null, null)).containsExactlyElementsOf(PlanetConstants.PLANETS);
+    Assertions.assertThat(planetIndex.find("Mountains", null)).containsExactly(PlanetConstants.ALDERAAN);
+    Assertions.assertThat(planetIndex.find(null, "temperate")).containsExactly(PlanetConstants.ALDERAAN, PlanetConstants.YAVINIV);
+    Assertions.assertThat(planetIndex.find("jungle, desert", "tropical")).containsExactly(PlanetConstants.YAVINIV);
+    Assertions.assertThat(planetIndex.find("ocean", null)).isEmpty();
+  }
+
+  @Test
+  public void findPlanets_AfterChanges_ReflectsCreatedAndRemovedPlanets() {
+    Planet kamino = new Planet(4L, "Kamino", "temperate", "ocean");
+
+    planetIndex.onChange(PlanetChangeEvent.saved(11, List.of(kamino)));
+    planetIndex.onChange(PlanetChangeEvent.removed(12, List.of(PlanetConstants.ALDERAAN.getId())));
+
+    Assertions.assertThat(planetIndex.find(null, "temperate")).containsExactly(PlanetConstants.YAVINIV, kamino);
+    Assertions.assertThat(planetIndex.find("mountains", null)).isEmpty();
+    Assertions.assertThat(planetIndex.getVersion()).isEqualTo(12);
+  }
+
+  @Test
+  public void findPlanets_AfterRefresh_ReflectsChangesFromOtherInstances() {
+    Planet kamino = new Planet(4L, "Kamino", "temperate", "ocean");
+    Mockito.when(changeLog.read(10, 1000)).thenReturn(new PlanetChanges(List.of(
+        PlanetChange.saved(11, kamino), PlanetChange.removed(12, PlanetConstants.ALDERAAN.getId())), 12));
+
+    // Skips a version, so it waits for the refresh.
+    planetIndex.onChange(PlanetChangeEvent.removed(12, List.of(PlanetConstants.ALDERAAN.getId())));
+    Assertions.assertThat(planetIndex.getVersion()).isEqualTo(10);
+
+    planetIndex.refresh();
+
+    Assertions.assertThat(planetIndex.find(null, "temperate")).containsExactly(PlanetConstants.YAVINIV, kamino);
+    Assertions.assertThat(planetIndex.getVersion()).isEqualTo(12);
+  }
+
+  @Test
+  public void refresh_WithPrunedVersion_RebuildsFromSnapshot() {
+    Planet kamino = new Planet(4L, "Kamino", "temperate", "ocean");
+    Mockito.when(changeLog.read(10, 1000)).thenThrow(new ResyncRequiredException(10, 30));
+    Mockito.when(changeLog.snapshot()).thenReturn(new PlanetChanges(List.of(PlanetChange.saved(30, kamino)), 30));
+    Mockito.when(changeLog.read(30, 1000)).thenReturn(new PlanetChanges(List.of(), 30));
+
+    planetIndex.refresh();
+
+    Assertions.assertThat(planetIndex.find(null, null)).containsExactly(kamino);
+    Assertions.assertThat(planetIndex.getVersion()).isEqualTo(30);
+  }
+}
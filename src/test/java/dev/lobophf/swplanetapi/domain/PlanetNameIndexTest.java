@@ -0,0 +1,74 @@
+package dev.lobophf.swplanetapi.domain;
+
+import dev.lobophf.swplanetapi.common.PlanetConstants;
+import org.assertj.core.api.Assertions;
+import org.mockito.Mockito;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+public class PlanetNameIndexTest {
+  @Mock
+  private PlanetChangeLog changeLog;
+
+  private PlanetNameIndex planetNameIndex;
+
+  @BeforeEach
+  public void beforeEach() {
+    Mockito.when(changeLog.snapshot()).thenReturn(new PlanetChanges(PlanetConstants.PLANETS.stream()
+        .map(planet -> PlanetChange.saved(10, planet)).collect(Collectors.toList()), 10));
+    Mockito.when(changeLog.read(10, 1000)).thenReturn(new PlanetChanges(List.of(), 10));
+    planetNameIndex = new PlanetNameIndex(true, changeLog);
+    planetNameIndex.build();
+  }
+
+  @Test
+  public void searchPlanets_ByPrefix_IgnoresCaseAndAccents() {
+    Planet endor = new Planet(4L, "Éndor", "temperate", "forests");
+    planetNameIndex.onChange(PlanetChangeEvent.saved(11, List.of(endor)));
+
+    Assertions.assertThat(planetNameIndex.isReady()).isTrue();
+    Assertions.assertThat(planetNameIndex.search("tat", 10)).containsExactly(PlanetConstants.TATOOINE);
+    Assertions.assertThat(planetNameIndex.search("YAVIN ", 10)).containsExactly(PlanetConstants.YAVINIV);
+    Assertions.assertThat(planetNameIndex.search("end", 10)).containsExactly(endor);
+    Assertions.assertThat(planetNameIndex.search("Énd", 10)).containsExactly(endor);
+    Assertions.assertThat(planetNameIndex.search("hoth", 10)).isEmpty();
+  }
+
+  @Test
+  public void searchPlanets_WithLimit_ReturnsFirstNamesInOrder() {
+    Assertions.assertThat(planetNameIndex.search("", 2)).containsExactly(PlanetConstants.ALDERAAN, PlanetConstants.TATOOINE);
+  }
+
+  @Test
+  public void searchPlanets_AfterChanges_ReflectsRenamedAndRemovedPlanets() {
+    Planet renamed = new Planet(PlanetConstants.TATOOINE.getId(), "Hoth", "frozen", "tundra");
+
+    planetNameIndex.onChange(PlanetChangeEvent.saved(11, List.of(renamed)));
+    planetNameIndex.onChange(PlanetChangeEvent.removed(12, List.of(PlanetConstants.ALDERAAN.getId())));
+
+    Assertions.assertThat(planetNameIndex.search("tat", 10)).isEmpty();
+    Assertions.assertThat(planetNameIndex.search("ho", 10)).containsExactly(renamed);
+    Assertions.assertThat(planetNameIndex.search("alder", 10)).isEmpty();
+  }
+
+  @Test
+  public void searchPlanets_AfterRefresh_ReflectsChangesFromOtherInstances() {
+    Planet kamino = new Planet(4L, "Kamino", "temperate", "ocean");
+    Mockito.when(changeLog.read(10, 1000)).thenReturn(new PlanetChanges(List.of(
+        PlanetChange.saved(11, kamino), PlanetChange.removed(11, PlanetConstants.ALDERAAN.getId())), 11));
+
+    planetNameIndex.refresh();
+
+    Assertions.assertThat(planetNameIndex.search("ka", 10)).containsExactly(kamino);
+    Assertions.assertThat(planetNameIndex.search("alder", 10)).isEmpty();
+    Assertions.assertThat(planetNameIndex.getVersion()).isEqualTo(11);
+  }
+}
@@ -5,6 +5,8 @@ import org.assertj.core.api.Assertions;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Test;
@@ -58,6 +60,14 @@ public class PlanetRepositoryTest {
     Assertions.assertThatThrownBy(() -> planetRepository.save(planet)).isInstanceOf(RuntimeException.class);
   }
 
+  @Sql(scripts = "/import_planets.sql")
+  @Test
+  public void findNames_ReturnsOnlyExistingNames() {
+    List<String> sut = planetRepository.findNamesIn(List.of(PlanetConstants.TATOOINE.getName(), "Kamino"));
+
+    Assertions.assertThat(sut).containsExactly(PlanetConstants.TATOOINE.getName());
+  }
+
   @Test
   public void getPlanet_ByExistingId_ReturnsPlanet() {
     Planet planet = testEntityManager.persistFlushFind(PlanetConstants.PLANET);
@@ -68,6 +78,19 @@ public class PlanetRepositoryTest {
     Assertions.assertThat(planetOpt.get()).isEqualTo(planet);
   }
 
+  @Test
+  public void getPlanetView_ByExistingIdAndName_ReturnsUnmanagedPlanet() {
+    Planet planet = testEntityManager.persistFlushFind(PlanetConstants.PLANET);
+
+    Optional<Planet> byId = planetRepository.findViewById(planet.getId());
+    Optional<Planet> byName = planetRepository.findViewByName(planet.getName());
+
+    Assertions.assertThat(byId).contains(planet);
+    Assertions.assertThat(byName).contains(planet);
+    Assertions.assertThat(testEntityManager.getEntityManager().contains(byId.get())).isFalse();
+    Assertions.assertThat(planetRepository.findViewById(planet.getId() + 1)).isEmpty();
+  }
+
   @Test
   public void getPlanet_ByUnexistingId_ReturnsEmpty() {
     Optional<Planet> planetOpt = planetRepository.findById(1L);
@@ -108,6 +131,27 @@ public class PlanetRepositoryTest {
     Assertions.assertThat(responseWithFilters.get(0)).isEqualTo(PlanetConstants.TATOOINE);
   }
 
+  @Sql(scripts = "/import_planets.sql")
+  @Test
+  public void listPlanets_ByToken_ReturnsPlanetsHavingAnyToken() {
+    List<Planet> byTerrain = planetRepository.findAll(QueryBuilder.makeTokenSpecification("Mountains", null));
+    List<Planet> byClimate = planetRepository.findAll(QueryBuilder.makeTokenSpecification(null, "temperate"));
+    List<Planet> byBoth = planetRepository.findAll(QueryBuilder.makeTokenSpecification("jungle, desert", "tropical"));
+
+    Assertions.assertThat(byTerrain).containsExactly(PlanetConstants.ALDERAAN);
+    Assertions.assertThat(byClimate).containsExactlyInAnyOrder(PlanetConstants.ALDERAAN, PlanetConstants.YAVINIV);
+    Assertions.assertThat(byBoth).containsExactly(PlanetConstants.YAVINIV);
+  }
+
+  @Test
+  public void createPlanet_StoresLowercaseTokens() {
+    Planet planet = testEntityManager.persistFlushFind(new Planet("Kamino", "Temperate", "Ocean, Islands"));
+
+    List<Planet> sut = planetRepository.findAll(QueryBuilder.makeTokenSpecification("islands", "temperate"));
+
+    Assertions.assertThat(sut).containsExactly(planet);
+  }
+
   @Test
   public void listPlanets_ReturnsNoPlanets() {
     Example<Planet> query = QueryBuilder.makeQuery(new Planet());
@@ -117,6 +161,138 @@ public class PlanetRepositoryTest {
     Assertions.assertThat(response).isEmpty();
   }
 
+  @Sql(scripts = "/import_planets.sql")
+  @Test
+  public void listPlanets_ByPage_ReturnsPlanetsAfterCursorOrderedById() {
+    List<Planet> firstPage = planetRepository.findPage(QueryBuilder.makeSpecification(new Planet()), null, 2);
+    List<Planet> secondPage = planetRepository.findPage(QueryBuilder.makeSpecification(new Planet()), firstPage.get(1).getId(), 2);
+    List<Planet> filteredPage = planetRepository.findPage(
+        QueryBuilder.makeSpecification(new Planet(PlanetConstants.ALDERAAN.getClimate(), null)), null, 2);
+
+    Assertions.assertThat(firstPage).containsExactly(PlanetConstants.TATOOINE, PlanetConstants.ALDERAAN);
+    Assertions.assertThat(secondPage).containsExactly(PlanetConstants.YAVINIV);
+    Assertions.assertThat(filteredPage).containsExactly(PlanetConstants.ALDERAAN);
+  }
+
+  @Sql(scripts = "/import_planets.sql")
+  @Test
+  public void streamPlanets_ReturnsFilteredPlanetsOrderedById() {
+    List<Planet> allPlanets;
+    List<Planet> filteredPlanets;
+    try (Stream<Planet> stream = planetRepository.stream(QueryBuilder.makeSpecification(new Planet()))) {
+      allPlanets = stream.collect(Collectors.toList());
+    }
+    try (Stream<Planet> stream = planetRepository.stream(
+        QueryBuilder.makeSpecification(new Planet(null, PlanetConstants.TATOOINE.getTerrain())))) {
+      filteredPlanets = stream.collect(Collectors.toList());
+    }
+
+    Assertions.assertThat(allPlanets).containsExactlyElementsOf(PlanetConstants.PLANETS);
+    Assertions.assertThat(filteredPlanets).containsExactly(PlanetConstants.TATOOINE);
+  }
+
+  @Sql(scripts = "/import_planets.sql")
+  @Test
+  public void findPlanetViews_ByIds_ReturnsExistingPlanets() {
+    List<Planet> sut = planetRepository.findViewsByIds(List.of(PlanetConstants.YAVINIV.getId(),
+        PlanetConstants.TATOOINE.getId(), 99L));
+
+    Assertions.assertThat(sut).containsExactlyInAnyOrder(PlanetConstants.TATOOINE, PlanetConstants.YAVINIV);
+  }
+
+  @Sql(scripts = "/import_planets.sql")
+  @Test
+  public void findPlanetViews_ByNamePrefix_IgnoresCaseAndOrdersByName() {
+    Assertions.assertThat(planetRepository.findViewsByNamePrefix("YAV", 10)).containsExactly(PlanetConstants.YAVINIV);
+    Assertions.assertThat(planetRepository.findViewsByNamePrefix("", 2))
+        .containsExactly(PlanetConstants.ALDERAAN, PlanetConstants.TATOOINE);
+    Assertions.assertThat(planetRepository.findViewsByNamePrefix("%", 10)).isEmpty();
+  }
+
+  @Sql(scripts = "/import_planets.sql")
+  @Test
+  public void streamPlanets_AfterCheckpoint_ReturnsRemainingPlanets() {
+    List<Planet> sut;
+    try (Stream<Planet> stream = planetRepository.stream(QueryBuilder.makeSpecification(new Planet()),
+        PlanetConstants.TATOOINE.getId())) {
+      sut = stream.collect(Collectors.toList());
+    }
+
+    Assertions.assertThat(sut).containsExactly(PlanetConstants.ALDERAAN, PlanetConstants.YAVINIV);
+  }
+
+  @Sql(scripts = "/import_planets.sql")
+  @Test
+  public void upsertPlanets_ReportsCreatedUpdatedAndUnchangedRows() {
+    Planet kamino = new Planet("Kamino", "temperate", "ocean");
+    Planet tatooine = new Planet(PlanetConstants.TATOOINE.getName(), "hot", "desert, canyons");
+
+    List<PlanetBatchResult> sut = planetRepository.upsertAll(List.of(kamino, tatooine, PlanetConstants.ALDERAAN));
+    planetRepository.flushAndClear();
+
+    Assertions.assertThat(sut).extracting(PlanetBatchResult::getStatus).containsExactly(
+        PlanetBatchResult.Status.CREATED, PlanetBatchResult.Status.UPDATED, PlanetBatchResult.Status.UNCHANGED);
+    Assertions.assertThat(sut.get(0).getPlanet().getId()).isNotNull();
+    Assertions.assertThat(sut.get(0).getPlanet().getVersion()).isZero();
+    Assertions.assertThat(sut.get(1).getPlanet())
+        .isEqualTo(new Planet(PlanetConstants.TATOOINE.getId(), "Tatooine", "hot", "desert, canyons"));
+    Assertions.assertThat(sut.get(1).getPlanet().getVersion()).isEqualTo(1L);
+    Assertions.assertThat(sut.get(2).getPlanet().getVersion()).isZero();
+    Assertions.assertThat(planetRepository.findViews(QueryBuilder.makeTokenSpecification("canyons", "hot")))
+        .containsExactly(sut.get(1).getPlanet());
+    Assertions.assertThat(planetRepository.findViews(QueryBuilder.makeTokenSpecification("ocean", null)))
+        .containsExactly(sut.get(0).getPlanet());
+    Assertions.assertThat(planetRepository.findViews(QueryBuilder.makeTokenSpecification(null, "arid"))).isEmpty();
+  }
+
+  @Sql(scripts = "/import_planets.sql")
+  @Test
+  public void adjustFacets_CountsTokensOfAddedAndRemovedPlanets() {
+    Planet kamino = planetRepository.save(new Planet("Kamino", "temperate", "ocean"));
+    planetRepository.addFacets(List.of(kamino.getId()));
+    planetRepository.removeFacets(List.of(PlanetConstants.TATOOINE.getId()));
+    planetRepository.flushAndClear();
+
+    List<PlanetFacet> sut = planetRepository.findFacets();
+
+    Assertions.assertThat(sut).extracting(PlanetFacet::getKind, PlanetFacet::getToken, PlanetFacet::getPlanetCount)
+        .containsExactly(
+            Assertions.tuple(PlanetToken.Kind.CLIMATE, "temperate", 3L),
+            Assertions.tuple(PlanetToken.Kind.CLIMATE, "tropical", 1L),
+            Assertions.tuple(PlanetToken.Kind.TERRAIN, "grasslands", 1L),
+            Assertions.tuple(PlanetToken.Kind.TERRAIN, "jungle", 1L),
+            Assertions.tuple(PlanetToken.Kind.TERRAIN, "mountains", 1L),
+            Assertions.tuple(PlanetToken.Kind.TERRAIN, "ocean", 1L),
+            Assertions.tuple(PlanetToken.Kind.TERRAIN, "rainforests", 1L));
+  }
+
+  @Sql(scripts = "/import_planets.sql")
+  @Test
+  public void upsertPlanets_MovesFacetCountsOfUpdatedPlanets() {
+    planetRepository.upsertAll(List.of(new Planet(PlanetConstants.TATOOINE.getName(), "temperate", "desert")));
+    planetRepository.flushAndClear();
+
+    List<PlanetFacet> sut = planetRepository.findFacets();
+
+    Assertions.assertThat(sut).extracting(PlanetFacet::getToken, PlanetFacet::getPlanetCount)
+        .contains(Assertions.tuple("temperate", 3L), Assertions.tuple("desert", 1L))
+        .doesNotContain(Assertions.tuple("arid", 1L));
+  }
+
+  @Sql(scripts = "/import_planets.sql")
+  @Test
+  public void rebuildFacets_WhenEmpty_CountsExistingTokens() {
+    testEntityManager.getEntityManager().createQuery("delete from PlanetFacet f").executeUpdate();
+
+    boolean rebuilt = planetRepository.rebuildFacetsIfEmpty();
+    boolean rebuiltAgain = planetRepository.rebuildFacetsIfEmpty();
+
+    Assertions.assertThat(rebuilt).isTrue();
+    Assertions.assertThat(rebuiltAgain).isFalse();
+    Assertions.assertThat(planetRepository.findFacets()).hasSize(8)
+        .extracting(PlanetFacet::getToken, PlanetFacet::getPlanetCount).contains(Assertions.tuple("temperate", 2L));
+  }
+
   @Test
   public void removePlanet_WithExistingId_RemovesPlanetFromDatabase() {
     Planet planet = testEntityManager.persistFlushFind(PlanetConstants.PLANET);
@@ -127,6 +303,39 @@ public class PlanetRepositoryTest {
     Assertions.assertThat(removedPlanet).isNull();
   }
 
+  @Test
+  public void deletePlanet_WithExistingId_ReturnsAffectedRows() {
+    Planet planet = testEntityManager.persistFlushFind(PlanetConstants.PLANET);
+    testEntityManager.clear();
+
+    int sut = planetRepository.deleteOne(planet.getId());
+
+    Assertions.assertThat(sut).isEqualTo(1);
+    Assertions.assertThat(testEntityManager.find(Planet.class, planet.getId())).isNull();
+  }
+
+  @Test
+  public void deletePlanet_WithUnexistingId_ReturnsZero() {
+    Assertions.assertThat(planetRepository.deleteOne(1L)).isZero();
+  }
+
+  @Sql(scripts = "/import_planets.sql")
+  @Test
+  public void deletePlanets_ByFilter_RemovesMatchingPlanetsAndTokens() {
+    List<Long> ids = planetRepository.findIds(QueryBuilder.makeSpecification("jungle", null, false));
+
+    int sut = planetRepository.deleteAllByIds(ids);
+
+    Assertions.assertThat(ids).containsExactly(PlanetConstants.YAVINIV.getId());
+    Assertions.assertThat(sut).isEqualTo(1);
+    Assertions.assertThat(planetRepository.findViews(QueryBuilder.makeTokenSpecification(null, null)))
+        .containsExactly(PlanetConstants.TATOOINE, PlanetConstants.ALDERAAN);
+    Assertions.assertThat(testEntityManager.getEntityManager()
+        .createQuery("select count(t) from PlanetToken t where t.planet.id = :id", Long.class)
+        .setParameter("id", PlanetConstants.YAVINIV.getId())
+        .getSingleResult()).isZero();
+  }
+
   @Test
   public void removePlanet_WithUnexistingId_ThrowsException() {
     Assertions.assertThatThrownBy(() -> planetRepository.deleteById(1L)).isInstanceOf(EmptyResultDataAccessException.class);
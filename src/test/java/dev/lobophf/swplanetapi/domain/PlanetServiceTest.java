@@ -5,17 +5,35 @@ import org.assertj.core.api.Assertions;
 import org.mockito.ArgumentMatchers;
 import org.mockito.Mockito;
 
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Path;
+import javax.persistence.criteria.Root;
 
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.data.domain.Example;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.test.util.ReflectionTestUtils;
 
 @ExtendWith(MockitoExtension.class)
 public class PlanetServiceTest {
@@ -25,6 +43,21 @@ public class PlanetServiceTest {
   @Mock
   private PlanetRepository planetRepository;
 
+  @Mock
+  private CatalogVersionRepository catalogVersionRepository;
+
+  @Spy
+  private PlanetCache planetCache = new PlanetCache(false, 0, Duration.ZERO);
+
+  @Spy
+  private PlanetIndex planetIndex = new PlanetIndex(false, null);
+
+  @Spy
+  private PlanetNameIndex planetNameIndex = new PlanetNameIndex(false, null);
+
+  @Mock
+  private ApplicationEventPublisher eventPublisher;
+
   @Test
   public void createPlanet_WithValidData_ReturnsPlanet() {
     Mockito.when(planetRepository.save(PlanetConstants.PLANET)).thenReturn(PlanetConstants.PLANET);
@@ -32,6 +65,25 @@ public class PlanetServiceTest {
     Planet sut = planetService.create(PlanetConstants.PLANET);
 
     Assertions.assertThat(sut).isEqualTo(PlanetConstants.PLANET);
+    Mockito.verify(planetRepository).addFacets(Collections.singletonList(PlanetConstants.PLANET.getId()));
+    Mockito.verify(catalogVersionRepository).increment(CatalogVersion.PLANETS);
+    Mockito.verify(eventPublisher).publishEvent(ArgumentMatchers.<PlanetChangeEvent>argThat(
+        event -> event.getSaved().equals(List.of(PlanetConstants.PLANET))));
+  }
+
+  @Test
+  public void createPlanet_LogsChangeUnderNewCatalogVersion() {
+    Mockito.when(planetRepository.save(PlanetConstants.PLANET)).thenReturn(PlanetConstants.TATOOINE);
+    Mockito.when(catalogVersionRepository.findVersion(CatalogVersion.PLANETS)).thenReturn(7L);
+
+    planetService.create(PlanetConstants.PLANET);
+
+    InOrder inOrder = Mockito.inOrder(catalogVersionRepository, planetRepository);
+    inOrder.verify(catalogVersionRepository).increment(CatalogVersion.PLANETS);
+    inOrder.verify(planetRepository).appendChanges(ArgumentMatchers.<List<PlanetChange>>argThat(changes ->
+        changes.size() == 1 && changes.get(0).getSequence() == 7L
+            && changes.get(0).getType() == PlanetChange.Type.SAVED
+            && changes.get(0).getPlanet().equals(PlanetConstants.TATOOINE)));
   }
 
   @Test
@@ -41,9 +93,45 @@ public class PlanetServiceTest {
     Assertions.assertThatThrownBy(() -> planetService.create(PlanetConstants.INVALID_PLANET)).isInstanceOf(RuntimeException.class);
   }
 
+  @Test
+  public void createPlanets_WithExistingAndRepeatedNames_ReportsConflicts() {
+    Planet kamino = new Planet("Kamino", "temperate", "ocean");
+    Planet repeatedKamino = new Planet("kamino", "temperate", "ocean");
+    Mockito.when(planetRepository.findNamesIn(ArgumentMatchers.anyCollection()))
+        .thenReturn(List.of(PlanetConstants.TATOOINE.getName()));
+    Mockito.when(planetRepository.save(kamino)).thenReturn(kamino);
+
+    List<PlanetBatchResult> sut = planetService.createAll(List.of(PlanetConstants.TATOOINE, kamino, repeatedKamino));
+
+    Assertions.assertThat(sut).extracting(PlanetBatchResult::getStatus).containsExactly(
+        PlanetBatchResult.Status.CONFLICT, PlanetBatchResult.Status.CREATED, PlanetBatchResult.Status.CONFLICT);
+    Assertions.assertThat(sut).extracting(PlanetBatchResult::getIndex).containsExactly(0, 1, 2);
+    Mockito.verify(planetRepository).save(kamino);
+    Mockito.verify(planetRepository).flushAndClear();
+  }
+
+  @Test
+  public void upsertPlanets_ReportsStatusPerPlanetAndPublishesChanges() {
+    Planet kamino = new Planet("Kamino", "temperate", "ocean");
+    Planet repeatedKamino = new Planet("kamino", "temperate", "ocean");
+    Planet createdKamino = new Planet(5L, "Kamino", "temperate", "ocean", 0L);
+    Mockito.when(planetRepository.upsertAll(List.of(PlanetConstants.TATOOINE, kamino))).thenReturn(List.of(
+        new PlanetBatchResult(0, PlanetBatchResult.Status.UNCHANGED, PlanetConstants.TATOOINE),
+        PlanetBatchResult.created(1, createdKamino)));
+
+    List<PlanetBatchResult> sut = planetService.upsertAll(List.of(PlanetConstants.TATOOINE, kamino, repeatedKamino));
+
+    Assertions.assertThat(sut).extracting(PlanetBatchResult::getStatus).containsExactly(
+        PlanetBatchResult.Status.UNCHANGED, PlanetBatchResult.Status.CREATED, PlanetBatchResult.Status.CONFLICT);
+    Assertions.assertThat(sut).extracting(PlanetBatchResult::getIndex).containsExactly(0, 1, 2);
+    Mockito.verify(catalogVersionRepository).increment(CatalogVersion.PLANETS);
+    Mockito.verify(eventPublisher).publishEvent(ArgumentMatchers.<PlanetChangeEvent>argThat(
+        event -> event.getSaved().equals(List.of(createdKamino))));
+  }
+
   @Test
   public void getPlanet_ByExistingId_ReturnsPlanet() {
-    Mockito.when(planetRepository.findById(1L)).thenReturn(Optional.of(PlanetConstants.PLANET));
+    Mockito.when(planetRepository.findViewById(1L)).thenReturn(Optional.of(PlanetConstants.PLANET));
 
     Optional<Planet> sut = planetService.get(1L);
 
@@ -51,9 +139,38 @@ public class PlanetServiceTest {
     Assertions.assertThat(sut.get()).isEqualTo(PlanetConstants.PLANET);
   }
 
+  @Test
+  public void getPlanet_ConcurrentlyById_QueriesRepositoryOnce() throws Exception {
+    int callers = 8;
+    CountDownLatch arrived = new CountDownLatch(callers);
+    Mockito.when(planetRepository.findViewById(1L)).thenAnswer(invocation -> {
+      // Holds the query open until every caller has asked for the planet.
+      arrived.await(5, TimeUnit.SECONDS);
+      Thread.sleep(100);
+      return Optional.of(PlanetConstants.TATOOINE);
+    });
+
+    ExecutorService executor = Executors.newFixedThreadPool(callers);
+    List<Future<Optional<Planet>>> sut = new ArrayList<>();
+    try {
+      for (int i = 0; i < callers; i++) {
+        sut.add(executor.submit(() -> {
+          arrived.countDown();
+          return planetService.get(1L);
+        }));
+      }
+      for (Future<Optional<Planet>> result : sut) {
+        Assertions.assertThat(result.get(5, TimeUnit.SECONDS)).contains(PlanetConstants.TATOOINE);
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+    Mockito.verify(planetRepository, Mockito.times(1)).findViewById(1L);
+  }
+
   @Test
   public void getPlanet_ByUnexistingId_ReturnsEmpty() {
-    Mockito.when(planetRepository.findById(1L)).thenReturn(Optional.empty());
+    Mockito.when(planetRepository.findViewById(1L)).thenReturn(Optional.empty());
 
     Optional<Planet> sut = planetService.get(1L);
 
@@ -62,7 +179,7 @@ public class PlanetServiceTest {
 
   @Test
   public void getPlanet_ByExistingName_ReturnsPlanet() {
-    Mockito.when(planetRepository.findByName(PlanetConstants.PLANET.getName())).thenReturn(Optional.of(PlanetConstants.PLANET));
+    Mockito.when(planetRepository.findViewByName(PlanetConstants.PLANET.getName())).thenReturn(Optional.of(PlanetConstants.PLANET));
 
     Optional<Planet> sut = planetService.getByName(PlanetConstants.PLANET.getName());
 
@@ -73,7 +190,7 @@ public class PlanetServiceTest {
   @Test
   public void getPlanet_ByUnexistingName_ReturnsEmpty() {
     final String name = "Unexisting name";
-    Mockito.when(planetRepository.findByName(name)).thenReturn(Optional.empty());
+    Mockito.when(planetRepository.findViewByName(name)).thenReturn(Optional.empty());
 
     Optional<Planet> sut = planetService.getByName(name);
 
@@ -81,25 +198,56 @@ public class PlanetServiceTest {
   }
 
   @Test
+  public void lookupPlanets_ByIds_KeepsRequestedOrderAndReportsMissingIds() {
+    ReflectionTestUtils.setField(planetService, "lookupChunkSize", 2);
+    Mockito.when(planetRepository.findViewsByIds(List.of(3L, 1L)))
+        .thenReturn(List.of(PlanetConstants.TATOOINE, PlanetConstants.YAVINIV));
+    Mockito.when(planetRepository.findViewsByIds(List.of(99L, 2L))).thenReturn(List.of(PlanetConstants.ALDERAAN));
+
+    PlanetLookup sut = planetService.lookup(List.of(3L, 1L, 99L, 2L, 1L));
+
+    Assertions.assertThat(sut.getPlanets())
+        .containsExactly(PlanetConstants.YAVINIV, PlanetConstants.TATOOINE, PlanetConstants.ALDERAAN);
+    Assertions.assertThat(sut.getMissingIds()).containsExactly(99L);
+  }
+
+  @Test
+  public void getCatalogVersion_ReturnsStoredVersion() {
+    Mockito.when(catalogVersionRepository.findById(CatalogVersion.PLANETS)).thenReturn(Optional.of(new CatalogVersion(CatalogVersion.PLANETS, 5)));
+
+    Assertions.assertThat(planetService.catalogVersion()).isEqualTo(5L);
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
   public void listPlanets_ReturnsAllPlanets() {
-    List<Planet> planets = new ArrayList<>() {
-      {
-        add(PlanetConstants.PLANET);
-      }
-    };
-    Example<Planet> query = QueryBuilder.makeQuery(new Planet(PlanetConstants.PLANET.getClimate(), PlanetConstants.PLANET.getTerrain()));
-    Mockito.when(planetRepository.findAll(query)).thenReturn(planets);
+    ArgumentCaptor<Specification<Planet>> specification = ArgumentCaptor.forClass(Specification.class);
+    Mockito.when(planetRepository.findViews(specification.capture())).thenReturn(List.of(PlanetConstants.PLANET));
 
     List<Planet> sut = planetService.list(PlanetConstants.PLANET.getTerrain(), PlanetConstants.PLANET.getClimate());
 
     Assertions.assertThat(sut).isNotEmpty();
     Assertions.assertThat(sut).hasSize(1);
     Assertions.assertThat(sut.get(0)).isEqualTo(PlanetConstants.PLANET);
+
+    // Runs the specification against mocked criteria to see which token filters it builds.
+    Root<Planet> root = Mockito.mock(Root.class);
+    CriteriaQuery<?> query = Mockito.mock(CriteriaQuery.class, Mockito.RETURNS_DEEP_STUBS);
+    CriteriaBuilder builder = Mockito.mock(CriteriaBuilder.class);
+    specification.getValue().toPredicate(root, query, builder);
+
+    Root<PlanetToken> token = query.subquery(Long.class).from(PlanetToken.class);
+    Path<Object> kind = token.get("kind");
+    Path<Object> value = token.get("token");
+    Mockito.verify(builder).equal(kind, PlanetToken.Kind.TERRAIN);
+    Mockito.verify(builder).equal(kind, PlanetToken.Kind.CLIMATE);
+    Mockito.verify(value).in(List.of(PlanetConstants.PLANET.getTerrain()));
+    Mockito.verify(value).in(List.of(PlanetConstants.PLANET.getClimate()));
   }
 
   @Test
   public void listPlanets_ReturnsNoPlanets() {
-    Mockito.when(planetRepository.findAll(ArgumentMatchers.any())).thenReturn(Collections.emptyList());
+    Mockito.when(planetRepository.findViews(ArgumentMatchers.any())).thenReturn(Collections.emptyList());
 
     List<Planet> sut = planetService.list(PlanetConstants.PLANET.getTerrain(), PlanetConstants.PLANET.getClimate());
 
@@ -107,14 +255,199 @@ public class PlanetServiceTest {
   }
 
   @Test
-  public void removePlanet_WithExistingId_doesNotThrowAnyException() {
-    Assertions.assertThatCode(() -> planetService.remove(1L)).doesNotThrowAnyException();
+  public void listPlanets_WithReadyIndex_DoesNotQueryRepository() {
+    Mockito.doReturn(true).when(planetIndex).isReady();
+    Mockito.doReturn(5L).when(planetIndex).getVersion();
+    Mockito.when(catalogVersionRepository.findById(CatalogVersion.PLANETS))
+        .thenReturn(Optional.of(new CatalogVersion(CatalogVersion.PLANETS, 5)));
+    Mockito.doReturn(List.of(PlanetConstants.ALDERAAN)).when(planetIndex).find("mountains", null);
+
+    List<Planet> sut = planetService.list("mountains", null);
+
+    Assertions.assertThat(sut).containsExactly(PlanetConstants.ALDERAAN);
+    Mockito.verifyNoInteractions(planetRepository);
+  }
+
+  @Test
+  public void listingPlanets_ReturnsVersionReadOnceWithPlanets() {
+    Mockito.doReturn(true).when(planetIndex).isReady();
+    Mockito.doReturn(5L).when(planetIndex).getVersion();
+    Mockito.when(catalogVersionRepository.findById(CatalogVersion.PLANETS))
+        .thenReturn(Optional.of(new CatalogVersion(CatalogVersion.PLANETS, 5)));
+    Mockito.doReturn(List.of(PlanetConstants.ALDERAAN)).when(planetIndex).find("mountains", null);
+
+    PlanetListing sut = planetService.listing("mountains", null, false);
+
+    Assertions.assertThat(sut.getVersion()).isEqualTo(5L);
+    Assertions.assertThat(sut.getPlanets()).containsExactly(PlanetConstants.ALDERAAN);
+    Mockito.verify(catalogVersionRepository).findById(CatalogVersion.PLANETS);
+  }
+
+  @Test
+  public void searchPlanets_WithIndexNotReady_QueriesRepository() {
+    Mockito.when(planetRepository.findViewsByNamePrefix("tat", 10)).thenReturn(List.of(PlanetConstants.TATOOINE));
+
+    List<Planet> sut = planetService.search("tat", 10);
+
+    Assertions.assertThat(sut).containsExactly(PlanetConstants.TATOOINE);
+    Mockito.verify(planetNameIndex, Mockito.never()).search(ArgumentMatchers.any(), ArgumentMatchers.anyInt());
+  }
+
+  @Test
+  public void searchPlanets_WithIndexBehindCatalogVersion_QueriesRepository() {
+    Mockito.doReturn(true).when(planetNameIndex).isReady();
+    Mockito.doReturn(4L).when(planetNameIndex).getVersion();
+    Mockito.when(catalogVersionRepository.findById(CatalogVersion.PLANETS))
+        .thenReturn(Optional.of(new CatalogVersion(CatalogVersion.PLANETS, 5)));
+    Mockito.when(planetRepository.findViewsByNamePrefix("tat", 10)).thenReturn(List.of(PlanetConstants.TATOOINE));
+
+    List<Planet> sut = planetService.search("tat", 10);
+
+    Assertions.assertThat(sut).containsExactly(PlanetConstants.TATOOINE);
+    Mockito.verify(planetNameIndex, Mockito.never()).search(ArgumentMatchers.any(), ArgumentMatchers.anyInt());
+  }
+
+  @Test
+  public void searchPlanets_WithCaughtUpIndex_DoesNotQueryRepository() {
+    Mockito.doReturn(true).when(planetNameIndex).isReady();
+    Mockito.doReturn(5L).when(planetNameIndex).getVersion();
+    Mockito.when(catalogVersionRepository.findById(CatalogVersion.PLANETS))
+        .thenReturn(Optional.of(new CatalogVersion(CatalogVersion.PLANETS, 5)));
+    Mockito.doReturn(List.of(PlanetConstants.TATOOINE)).when(planetNameIndex).search("tat", 10);
+
+    List<Planet> sut = planetService.search("tat", 10);
+
+    Assertions.assertThat(sut).containsExactly(PlanetConstants.TATOOINE);
+    Mockito.verifyNoInteractions(planetRepository);
+  }
+
+  @Test
+  public void listPlanets_WithIndexBehindCatalogVersion_QueriesRepository() {
+    Mockito.doReturn(true).when(planetIndex).isReady();
+    Mockito.doReturn(4L).when(planetIndex).getVersion();
+    Mockito.when(catalogVersionRepository.findById(CatalogVersion.PLANETS))
+        .thenReturn(Optional.of(new CatalogVersion(CatalogVersion.PLANETS, 5)));
+    Mockito.when(planetRepository.findViews(ArgumentMatchers.any())).thenReturn(List.of(PlanetConstants.ALDERAAN));
+
+    List<Planet> sut = planetService.list("mountains", null);
+
+    Assertions.assertThat(sut).containsExactly(PlanetConstants.ALDERAAN);
+    Mockito.verify(planetIndex, Mockito.never()).find(ArgumentMatchers.any(), ArgumentMatchers.any());
+  }
+
+  @Test
+  public void listPlanets_WithExactMatch_ReturnsAllPlanets() {
+    Mockito.when(planetRepository.findViews(ArgumentMatchers.any())).thenReturn(List.of(PlanetConstants.PLANET));
+
+    List<Planet> sut = planetService.listExact(PlanetConstants.PLANET.getTerrain(), PlanetConstants.PLANET.getClimate());
+
+    Assertions.assertThat(sut).isNotEmpty();
+    Assertions.assertThat(sut).hasSize(1);
+    Assertions.assertThat(sut.get(0)).isEqualTo(PlanetConstants.PLANET);
+  }
+
+  @Test
+  public void listPlanets_WithCursor_ReturnsPage() {
+    Mockito.when(planetRepository.findPage(ArgumentMatchers.any(), ArgumentMatchers.eq(1L), ArgumentMatchers.eq(2)))
+        .thenReturn(List.of(PlanetConstants.ALDERAAN, PlanetConstants.YAVINIV));
+
+    List<Planet> sut = planetService.list(null, null, false, 1L, 2);
+
+    Assertions.assertThat(sut).containsExactly(PlanetConstants.ALDERAAN, PlanetConstants.YAVINIV);
+  }
+
+  @Test
+  public void facets_GroupsCountsByKind() {
+    Mockito.when(planetRepository.findFacets()).thenReturn(List.of(
+        new PlanetFacet(PlanetToken.Kind.CLIMATE, "temperate", 2L),
+        new PlanetFacet(PlanetToken.Kind.CLIMATE, "arid", 1L),
+        new PlanetFacet(PlanetToken.Kind.TERRAIN, "desert", 1L)));
+
+    Map<String, Map<String, Long>> sut = planetService.facets();
+
+    Assertions.assertThat(sut).containsOnlyKeys("terrain", "climate");
+    Assertions.assertThat(sut.get("terrain")).containsExactly(Map.entry("desert", 1L));
+    Assertions.assertThat(sut.get("climate")).containsExactly(Map.entry("temperate", 2L), Map.entry("arid", 1L));
+  }
+
+  @Test
+  public void removePlanet_WithExistingId_ReturnsTrue() {
+    Mockito.when(planetRepository.lockIds(List.of(1L))).thenReturn(List.of(1L));
+
+    Assertions.assertThat(planetService.remove(1L)).isTrue();
+    InOrder inOrder = Mockito.inOrder(planetRepository);
+    inOrder.verify(planetRepository).lockIds(List.of(1L));
+    inOrder.verify(planetRepository).removeFacets(List.of(1L));
+    inOrder.verify(planetRepository).deleteOne(1L);
+    Mockito.verify(catalogVersionRepository).increment(CatalogVersion.PLANETS);
+    Mockito.verify(eventPublisher).publishEvent(ArgumentMatchers.<PlanetChangeEvent>argThat(
+        event -> event.getRemovedIds().equals(List.of(1L))));
+  }
+
+  @Test
+  public void removePlanet_WithUnexistingId_ReturnsFalse() {
+    Mockito.when(planetRepository.lockIds(List.of(99L))).thenReturn(List.of());
+
+    Assertions.assertThat(planetService.remove(99L)).isFalse();
+    Mockito.verify(planetRepository, Mockito.never()).removeFacets(ArgumentMatchers.any());
+    Mockito.verifyNoInteractions(catalogVersionRepository, eventPublisher);
+  }
+
+  @Test
+  public void removePlanet_Twice_DecrementsFacetsOnce() {
+    // The second delete locks after the first one committed and finds no row.
+    Mockito.when(planetRepository.lockIds(List.of(1L))).thenReturn(List.of(1L)).thenReturn(List.of());
+
+    Assertions.assertThat(planetService.remove(1L)).isTrue();
+    Assertions.assertThat(planetService.remove(1L)).isFalse();
+    Mockito.verify(planetRepository).removeFacets(List.of(1L));
+    Mockito.verify(planetRepository).deleteOne(1L);
+    Mockito.verify(catalogVersionRepository).increment(CatalogVersion.PLANETS);
+  }
+
+  @Test
+  public void removePlanets_ByFilter_DeletesMatchingIds() {
+    Mockito.when(planetRepository.findIds(ArgumentMatchers.any())).thenReturn(List.of(1L, 3L));
+    Mockito.when(planetRepository.lockIds(List.of(1L, 3L))).thenReturn(List.of(1L, 3L));
+    Mockito.when(planetRepository.deleteAllByIds(List.of(1L, 3L))).thenReturn(2);
+
+    int sut = planetService.removeAll("desert", null, false);
+
+    Assertions.assertThat(sut).isEqualTo(2);
+    Mockito.verify(eventPublisher).publishEvent(ArgumentMatchers.<PlanetChangeEvent>argThat(
+        event -> event.getRemovedIds().equals(List.of(1L, 3L))));
+  }
+
+  @Test
+  public void removePlanets_ByIds_LogsEachIdOnce() {
+    Mockito.when(planetRepository.lockIds(List.of(1L, 3L, 1L))).thenReturn(List.of(1L, 3L));
+    Mockito.when(planetRepository.deleteAllByIds(List.of(1L, 3L))).thenReturn(2);
+    Mockito.when(catalogVersionRepository.findVersion(CatalogVersion.PLANETS)).thenReturn(4L);
+
+    planetService.removeAll(List.of(1L, 3L, 1L));
+
+    Mockito.verify(planetRepository).appendChanges(ArgumentMatchers.<List<PlanetChange>>argThat(changes ->
+        changes.stream().map(PlanetChange::getPlanetId).collect(Collectors.toList()).equals(List.of(1L, 3L))
+            && changes.stream().allMatch(change -> change.getSequence() == 4L
+                && change.getType() == PlanetChange.Type.REMOVED && change.getPlanet() == null)));
+  }
+
+  @Test
+  public void removePlanets_WithNoMatches_DoesNotDelete() {
+    Mockito.when(planetRepository.findIds(ArgumentMatchers.any())).thenReturn(List.of());
+
+    Assertions.assertThat(planetService.removeAll("lava", null, false)).isZero();
+    Mockito.verify(planetRepository, Mockito.never()).deleteAllByIds(ArgumentMatchers.any());
   }
 
   @Test
-  public void removePlanet_WithUnexistingId_ThrowsException() {
-    Mockito.doThrow(new RuntimeException()).when(planetRepository).deleteById(99L);
+  public void removePlanets_AlreadyRemovedConcurrently_DecrementsFacetsOnlyForLockedIds() {
+    Mockito.when(planetRepository.lockIds(List.of(1L, 2L))).thenReturn(List.of(2L));
+    Mockito.when(planetRepository.deleteAllByIds(List.of(2L))).thenReturn(1);
 
-    Assertions.assertThatThrownBy(() -> planetService.remove(99L)).isInstanceOf(RuntimeException.class);
+    Assertions.assertThat(planetService.removeAll(List.of(1L, 2L))).isEqualTo(1);
+    Mockito.verify(planetRepository).removeFacets(List.of(2L));
+    Mockito.verify(eventPublisher).publishEvent(ArgumentMatchers.<PlanetChangeEvent>argThat(
+        event -> event.getRemovedIds().equals(List.of(2L))));
   }
 }
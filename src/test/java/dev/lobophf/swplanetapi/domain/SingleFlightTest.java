@@ -0,0 +1,58 @@
+package dev.lobophf.swplanetapi.domain;
+
+import org.assertj.core.api.Assertions;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+public class SingleFlightTest {
+  private final SingleFlight<String, String> singleFlight = new SingleFlight<>();
+
+  @Test
+  public void load_WhileFlightIsSlow_LoadsOnItsOwnAfterTimeout() throws Exception {
+    CountDownLatch started = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    CompletableFuture<String> slow = CompletableFuture.supplyAsync(() -> singleFlight.load("key", key -> {
+      started.countDown();
+      await(release);
+      return "slow";
+    }, Duration.ofSeconds(5)));
+    started.await(5, TimeUnit.SECONDS);
+
+    String sut = singleFlight.load("key", key -> "own", Duration.ofMillis(50));
+    release.countDown();
+
+    Assertions.assertThat(sut).isEqualTo("own");
+    Assertions.assertThat(slow.get(5, TimeUnit.SECONDS)).isEqualTo("slow");
+  }
+
+  @Test
+  public void load_AfterFailedFlight_LoadsAgain() {
+    AtomicInteger loads = new AtomicInteger();
+
+    Assertions.assertThatThrownBy(() -> singleFlight.load("key", key -> {
+      loads.incrementAndGet();
+      throw new IllegalStateException("down");
+    }, Duration.ofSeconds(1))).isInstanceOf(IllegalStateException.class);
+    String sut = singleFlight.load("key", key -> {
+      loads.incrementAndGet();
+      return "value";
+    }, Duration.ofSeconds(1));
+
+    Assertions.assertThat(sut).isEqualTo("value");
+    Assertions.assertThat(loads).hasValue(2);
+  }
+
+  private static void await(CountDownLatch latch) {
+    try {
+      latch.await(5, TimeUnit.SECONDS);
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
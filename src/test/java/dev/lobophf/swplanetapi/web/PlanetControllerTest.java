@@ -1,28 +1,48 @@
 package dev.lobophf.swplanetapi.web;
 
 import dev.lobophf.swplanetapi.common.PlanetConstants;
+import org.assertj.core.api.Assertions;
 import org.hamcrest.Matchers;
 import org.mockito.ArgumentMatchers;
 import org.mockito.Mockito;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.zip.GZIPInputStream;
 
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.dao.DataIntegrityViolationException;
-import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.web.context.request.async.DeferredResult;
 
+import dev.lobophf.swplanetapi.concurrency.ConcurrencyLimitExceededException;
 import dev.lobophf.swplanetapi.domain.Planet;
+import dev.lobophf.swplanetapi.domain.PlanetBatchResult;
+import dev.lobophf.swplanetapi.domain.PlanetChange;
+import dev.lobophf.swplanetapi.domain.PlanetChanges;
+import dev.lobophf.swplanetapi.domain.PlanetImportReport;
+import dev.lobophf.swplanetapi.domain.PlanetImporter;
+import dev.lobophf.swplanetapi.domain.PlanetListing;
+import dev.lobophf.swplanetapi.domain.PlanetLookup;
 import dev.lobophf.swplanetapi.domain.PlanetService;
+import dev.lobophf.swplanetapi.domain.ResyncRequiredException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
 
 @WebMvcTest(PlanetController.class)
 public class PlanetControllerTest {
@@ -35,6 +55,12 @@ public class PlanetControllerTest {
   @MockBean
   private PlanetService planetService;
 
+  @MockBean
+  private PlanetImporter planetImporter;
+
+  @MockBean
+  private PlanetChangeFeed planetChangeFeed;
+
   @Test
   public void createPlanet_WithValidData_ReturnsCreated() throws Exception {
     Mockito.when(planetService.create(PlanetConstants.PLANET)).thenReturn(PlanetConstants.PLANET);
@@ -47,6 +73,32 @@ public class PlanetControllerTest {
         .andExpect(MockMvcResultMatchers.jsonPath("$").value(PlanetConstants.PLANET));
   }
 
+  @Test
+  public void createPlanet_WithCbor_ReturnsCreatedCbor() throws Exception {
+    Mockito.when(planetService.create(PlanetConstants.PLANET)).thenReturn(PlanetConstants.TATOOINE);
+    ObjectMapper cborMapper = new ObjectMapper(new CBORFactory());
+
+    byte[] body = mockMvc
+        .perform(
+            MockMvcRequestBuilders.post("/planets").content(cborMapper.writeValueAsBytes(PlanetConstants.PLANET))
+                .contentType(MediaType.APPLICATION_CBOR).accept(MediaType.APPLICATION_CBOR))
+        .andExpect(MockMvcResultMatchers.status().isCreated())
+        .andExpect(MockMvcResultMatchers.content().contentType(MediaType.APPLICATION_CBOR))
+        .andReturn().getResponse().getContentAsByteArray();
+    Assertions.assertThat(cborMapper.readValue(body, Planet.class)).isEqualTo(PlanetConstants.TATOOINE);
+  }
+
+  @Test
+  public void createPlanet_WithInvalidCbor_ReturnsUnprocessableEntity() throws Exception {
+    ObjectMapper cborMapper = new ObjectMapper(new CBORFactory());
+
+    mockMvc
+        .perform(
+            MockMvcRequestBuilders.post("/planets").content(cborMapper.writeValueAsBytes(PlanetConstants.INVALID_PLANET))
+                .contentType(MediaType.APPLICATION_CBOR))
+        .andExpect(MockMvcResultMatchers.status().isUnprocessableEntity());
+  }
+
   @Test
   public void createPlanet_WithInvalidData_ReturnsBadRequest() throws Exception {
     Planet emptyPlanet = new Planet();
@@ -75,6 +127,97 @@ public class PlanetControllerTest {
         .andExpect(MockMvcResultMatchers.status().isConflict());
   }
 
+  @Test
+  public void createPlanets_WithValidData_ReturnsResultPerPlanet() throws Exception {
+    List<Planet> planets = List.of(PlanetConstants.TATOOINE, PlanetConstants.PLANET);
+    Mockito.when(planetService.createAll(planets)).thenReturn(List.of(
+        PlanetBatchResult.conflict(0, PlanetConstants.TATOOINE),
+        PlanetBatchResult.created(1, PlanetConstants.PLANET)));
+
+    mockMvc
+        .perform(
+            MockMvcRequestBuilders.post("/planets/batch").content(objectMapper.writeValueAsString(planets))
+                .contentType(MediaType.APPLICATION_JSON))
+        .andExpect(MockMvcResultMatchers.status().isOk())
+        .andExpect(MockMvcResultMatchers.jsonPath("$", Matchers.hasSize(2)))
+        .andExpect(MockMvcResultMatchers.jsonPath("$[0].status").value("CONFLICT"))
+        .andExpect(MockMvcResultMatchers.jsonPath("$[1].status").value("CREATED"))
+        .andExpect(MockMvcResultMatchers.jsonPath("$[1].planet").value(PlanetConstants.PLANET));
+  }
+
+  @Test
+  public void createPlanets_WithInvalidData_ReturnsUnprocessableEntity() throws Exception {
+    mockMvc
+        .perform(
+            MockMvcRequestBuilders.post("/planets/batch")
+                .content(objectMapper.writeValueAsString(List.of(PlanetConstants.PLANET, PlanetConstants.INVALID_PLANET)))
+                .contentType(MediaType.APPLICATION_JSON))
+        .andExpect(MockMvcResultMatchers.status().isUnprocessableEntity());
+    mockMvc
+        .perform(
+            MockMvcRequestBuilders.post("/planets/batch").content("[]")
+                .contentType(MediaType.APPLICATION_JSON))
+        .andExpect(MockMvcResultMatchers.status().isUnprocessableEntity());
+  }
+
+  @Test
+  public void upsertPlanet_WithNewName_ReturnsCreated() throws Exception {
+    Planet kamino = new Planet(5L, "Kamino", "temperate", "ocean", 0L);
+    Mockito.when(planetService.upsert(new Planet("Kamino", "temperate", "ocean")))
+        .thenReturn(PlanetBatchResult.created(0, kamino));
+
+    mockMvc
+        .perform(
+            MockMvcRequestBuilders.put("/planets/name/Kamino")
+                .content("{\"climate\": \"temperate\", \"terrain\": \"ocean\"}")
+                .contentType(MediaType.APPLICATION_JSON))
+        .andExpect(MockMvcResultMatchers.status().isCreated())
+        .andExpect(MockMvcResultMatchers.header().string("ETag", "\"5-0\""))
+        .andExpect(MockMvcResultMatchers.jsonPath("$").value(kamino));
+  }
+
+  @Test
+  public void upsertPlanet_WithExistingName_ReturnsOk() throws Exception {
+    Planet tatooine = new Planet(1L, "Tatooine", "hot", "desert", 1L);
+    Mockito.when(planetService.upsert(new Planet("Tatooine", "hot", "desert")))
+        .thenReturn(new PlanetBatchResult(0, PlanetBatchResult.Status.UPDATED, tatooine));
+
+    mockMvc
+        .perform(
+            MockMvcRequestBuilders.put("/planets/name/Tatooine")
+                .content("{\"climate\": \"hot\", \"terrain\": \"desert\"}")
+                .contentType(MediaType.APPLICATION_JSON))
+        .andExpect(MockMvcResultMatchers.status().isOk())
+        .andExpect(MockMvcResultMatchers.header().string("ETag", "\"1-1\""))
+        .andExpect(MockMvcResultMatchers.jsonPath("$").value(tatooine));
+  }
+
+  @Test
+  public void upsertPlanet_WithInvalidData_ReturnsUnprocessableEntity() throws Exception {
+    mockMvc
+        .perform(
+            MockMvcRequestBuilders.put("/planets/name/Kamino").content("{\"climate\": \"temperate\"}")
+                .contentType(MediaType.APPLICATION_JSON))
+        .andExpect(MockMvcResultMatchers.status().isUnprocessableEntity());
+    Mockito.verifyNoInteractions(planetService);
+  }
+
+  @Test
+  public void upsertPlanets_WithValidData_ReturnsResultPerPlanet() throws Exception {
+    List<Planet> planets = List.of(PlanetConstants.TATOOINE, PlanetConstants.PLANET);
+    Mockito.when(planetService.upsertAll(planets)).thenReturn(List.of(
+        new PlanetBatchResult(0, PlanetBatchResult.Status.UNCHANGED, PlanetConstants.TATOOINE),
+        PlanetBatchResult.created(1, PlanetConstants.PLANET)));
+
+    mockMvc
+        .perform(
+            MockMvcRequestBuilders.put("/planets").content(objectMapper.writeValueAsString(planets))
+                .contentType(MediaType.APPLICATION_JSON))
+        .andExpect(MockMvcResultMatchers.status().isOk())
+        .andExpect(MockMvcResultMatchers.jsonPath("$[0].status").value("UNCHANGED"))
+        .andExpect(MockMvcResultMatchers.jsonPath("$[1].status").value("CREATED"));
+  }
+
   @Test
   public void getPlanet_ByExistingId_ReturnsPlanet() throws Exception {
     Mockito.when(planetService.get(1L)).thenReturn(Optional.of(PlanetConstants.PLANET));
@@ -86,6 +229,22 @@ public class PlanetControllerTest {
         .andExpect(MockMvcResultMatchers.jsonPath("$").value(PlanetConstants.PLANET));
   }
 
+  @Test
+  public void getPlanet_WithMatchingETag_ReturnsNotModified() throws Exception {
+    Planet planet = new Planet(1L, "Tatooine", "arid", "desert", 3L);
+    Mockito.when(planetService.get(1L)).thenReturn(Optional.of(planet));
+    Mockito.when(planetService.getByName(planet.getName())).thenReturn(Optional.of(planet));
+
+    mockMvc.perform(MockMvcRequestBuilders.get("/planets/1"))
+        .andExpect(MockMvcResultMatchers.status().isOk())
+        .andExpect(MockMvcResultMatchers.header().string("ETag", "\"1-3\""));
+    mockMvc.perform(MockMvcRequestBuilders.get("/planets/1").header("If-None-Match", "\"1-3\""))
+        .andExpect(MockMvcResultMatchers.status().isNotModified())
+        .andExpect(MockMvcResultMatchers.content().string(""));
+    mockMvc.perform(MockMvcRequestBuilders.get("/planets/name/" + planet.getName()).header("If-None-Match", "\"1-2\""))
+        .andExpect(MockMvcResultMatchers.status().isOk());
+  }
+
   @Test
   public void getPlanet_ByUnexistingId_ReturnsNotFound() throws Exception {
     mockMvc.perform(MockMvcRequestBuilders.get("/planets/1"))
@@ -109,10 +268,117 @@ public class PlanetControllerTest {
         .andExpect(MockMvcResultMatchers.status().isNotFound());
   }
 
+  @Test
+  public void importPlanets_FromCsv_ReturnsReport() throws Exception {
+    Mockito.when(planetImporter.importPlanets(ArgumentMatchers.any(), ArgumentMatchers.eq(PlanetImporter.Format.CSV)))
+        .thenReturn(new PlanetImportReport(10));
+
+    mockMvc
+        .perform(MockMvcRequestBuilders.post("/planets/import").content("name,climate,terrain\n")
+            .contentType("text/csv"))
+        .andExpect(MockMvcResultMatchers.status().isOk())
+        .andExpect(MockMvcResultMatchers.jsonPath("$.rows").value(0))
+        .andExpect(MockMvcResultMatchers.jsonPath("$.errors", Matchers.empty()));
+  }
+
+  @Test
+  public void importPlanets_WithUnsupportedContentType_ReturnsUnsupportedMediaType() throws Exception {
+    mockMvc
+        .perform(MockMvcRequestBuilders.post("/planets/import").content("name").contentType(MediaType.TEXT_PLAIN))
+        .andExpect(MockMvcResultMatchers.status().isUnsupportedMediaType());
+  }
+
+  @Test
+  public void lookupPlanets_ByIds_ReturnsPlanetsAndMissingIds() throws Exception {
+    Mockito.when(planetService.lookup(List.of(3L, 1L, 99L)))
+        .thenReturn(new PlanetLookup(List.of(PlanetConstants.YAVINIV, PlanetConstants.TATOOINE), List.of(99L)));
+
+    mockMvc.perform(MockMvcRequestBuilders.get("/planets").param("ids", "3,1,99"))
+        .andExpect(MockMvcResultMatchers.status().isOk())
+        .andExpect(MockMvcResultMatchers.jsonPath("$.planets", Matchers.hasSize(2)))
+        .andExpect(MockMvcResultMatchers.jsonPath("$.planets[0]").value(PlanetConstants.YAVINIV))
+        .andExpect(MockMvcResultMatchers.jsonPath("$.missingIds[0]").value(99));
+  }
+
+  @Test
+  public void lookupPlanets_WithTooManyIds_ReturnsBadRequest() throws Exception {
+    String ids = String.join(",", Collections.nCopies(PlanetController.MAX_PAGE_SIZE + 1, "1"));
+
+    mockMvc.perform(MockMvcRequestBuilders.get("/planets").param("ids", ids))
+        .andExpect(MockMvcResultMatchers.status().isBadRequest());
+  }
+
+  @Test
+  public void searchPlanets_ByPrefix_ReturnsPlanets() throws Exception {
+    Mockito.when(planetService.search("tat", 10)).thenReturn(List.of(PlanetConstants.TATOOINE));
+
+    mockMvc
+        .perform(
+            MockMvcRequestBuilders.get("/planets/search?prefix=tat"))
+        .andExpect(MockMvcResultMatchers.status().isOk())
+        .andExpect(MockMvcResultMatchers.jsonPath("$", Matchers.hasSize(1)))
+        .andExpect(MockMvcResultMatchers.jsonPath("$[0]").value(PlanetConstants.TATOOINE));
+  }
+
+  @Test
+  public void searchPlanets_WithInvalidLimit_ReturnsBadRequest() throws Exception {
+    mockMvc.perform(MockMvcRequestBuilders.get("/planets/search?prefix=tat&limit=0"))
+        .andExpect(MockMvcResultMatchers.status().isBadRequest());
+    mockMvc.perform(MockMvcRequestBuilders.get("/planets/search?prefix=tat&limit=51"))
+        .andExpect(MockMvcResultMatchers.status().isBadRequest());
+  }
+
+  @Test
+  public void facets_ReturnsCountsByKind() throws Exception {
+    Mockito.when(planetService.facets()).thenReturn(Map.of("terrain", Map.of("desert", 1L), "climate",
+        Map.of("arid", 1L)));
+
+    mockMvc.perform(MockMvcRequestBuilders.get("/planets/facets"))
+        .andExpect(MockMvcResultMatchers.status().isOk())
+        .andExpect(MockMvcResultMatchers.jsonPath("$.terrain.desert").value(1))
+        .andExpect(MockMvcResultMatchers.jsonPath("$.climate.arid").value(1));
+  }
+
+  @Test
+  public void changes_SinceCursor_ReturnsChangesAndNextCursor() throws Exception {
+    DeferredResult<PlanetChanges> result = new DeferredResult<>();
+    result.setResult(new PlanetChanges(List.of(PlanetChange.saved(5, PlanetConstants.TATOOINE),
+        PlanetChange.removed(6, PlanetConstants.ALDERAAN.getId())), 6));
+    Mockito.when(planetChangeFeed.poll(4, 100, Duration.ofSeconds(10))).thenReturn(result);
+
+    MvcResult started = mockMvc.perform(MockMvcRequestBuilders.get("/planets/changes?since=4&wait=10"))
+        .andExpect(MockMvcResultMatchers.request().asyncStarted())
+        .andReturn();
+
+    mockMvc.perform(MockMvcRequestBuilders.asyncDispatch(started))
+        .andExpect(MockMvcResultMatchers.status().isOk())
+        .andExpect(MockMvcResultMatchers.jsonPath("$.next").value(6))
+        .andExpect(MockMvcResultMatchers.jsonPath("$.changes[0].type").value("SAVED"))
+        .andExpect(MockMvcResultMatchers.jsonPath("$.changes[0].planet.name").value(PlanetConstants.TATOOINE.getName()))
+        .andExpect(MockMvcResultMatchers.jsonPath("$.changes[1].type").value("REMOVED"))
+        .andExpect(MockMvcResultMatchers.jsonPath("$.changes[1].planet").doesNotExist());
+  }
+
+  @Test
+  public void changes_WithPrunedCursor_ReturnsGone() throws Exception {
+    Mockito.when(planetChangeFeed.poll(1, 100, Duration.ZERO)).thenThrow(new ResyncRequiredException(1, 20));
+
+    mockMvc.perform(MockMvcRequestBuilders.get("/planets/changes?since=1"))
+        .andExpect(MockMvcResultMatchers.status().isGone())
+        .andExpect(MockMvcResultMatchers.jsonPath("$.version").value(20));
+  }
+
+  @Test
+  public void changes_WithInvalidWait_ReturnsBadRequest() throws Exception {
+    mockMvc.perform(MockMvcRequestBuilders.get("/planets/changes?since=1&wait=61"))
+        .andExpect(MockMvcResultMatchers.status().isBadRequest());
+    Mockito.verifyNoInteractions(planetChangeFeed);
+  }
+
   @Test
   public void listPlanets_ReturnsFilteredPlanets() throws Exception {
-    Mockito.when(planetService.list(null, null)).thenReturn(PlanetConstants.PLANETS);
-    Mockito.when(planetService.list(PlanetConstants.TATOOINE.getTerrain(), PlanetConstants.TATOOINE.getClimate())).thenReturn(List.of(PlanetConstants.TATOOINE));
+    Mockito.when(planetService.listing(null, null, false)).thenReturn(new PlanetListing(1, PlanetConstants.PLANETS));
+    Mockito.when(planetService.listing(PlanetConstants.TATOOINE.getTerrain(), PlanetConstants.TATOOINE.getClimate(), false)).thenReturn(new PlanetListing(1, List.of(PlanetConstants.TATOOINE)));
 
     mockMvc
         .perform(
@@ -129,9 +395,41 @@ public class PlanetControllerTest {
         .andExpect(MockMvcResultMatchers.jsonPath("$[0]").value(PlanetConstants.TATOOINE));
   }
 
+  @Test
+  public void listPlanets_WithExactMatch_ReturnsPlanets() throws Exception {
+    Mockito.when(planetService.listing(PlanetConstants.ALDERAAN.getTerrain(), null, true)).thenReturn(new PlanetListing(1, List.of(PlanetConstants.ALDERAAN)));
+
+    mockMvc
+        .perform(
+            MockMvcRequestBuilders.get("/planets").param("terrain", PlanetConstants.ALDERAAN.getTerrain()).param("exact", "true"))
+        .andExpect(MockMvcResultMatchers.status().isOk())
+        .andExpect(MockMvcResultMatchers.jsonPath("$", Matchers.hasSize(1)))
+        .andExpect(MockMvcResultMatchers.jsonPath("$[0]").value(PlanetConstants.ALDERAAN));
+  }
+
+  @Test
+  public void listPlanets_WithUnchangedCatalog_ReturnsNotModifiedWithoutQuerying() throws Exception {
+    Mockito.when(planetService.catalogVersion()).thenReturn(7L);
+
+    mockMvc.perform(MockMvcRequestBuilders.get("/planets").header("If-None-Match", "W/\"7\""))
+        .andExpect(MockMvcResultMatchers.status().isNotModified());
+
+    Mockito.verify(planetService, Mockito.never()).listing(ArgumentMatchers.any(), ArgumentMatchers.any(), ArgumentMatchers.anyBoolean());
+  }
+
+  @Test
+  public void listPlanets_ReturnsETagOfVersionReadWithPlanets() throws Exception {
+    Mockito.when(planetService.catalogVersion()).thenReturn(8L);
+    Mockito.when(planetService.listing(null, null, false)).thenReturn(new PlanetListing(7, PlanetConstants.PLANETS));
+
+    mockMvc.perform(MockMvcRequestBuilders.get("/planets"))
+        .andExpect(MockMvcResultMatchers.status().isOk())
+        .andExpect(MockMvcResultMatchers.header().string("ETag", "W/\"7\""));
+  }
+
   @Test
   public void listPlanets_ReturnsNoPlanets() throws Exception {
-    Mockito.when(planetService.list(null, null)).thenReturn(Collections.emptyList());
+    Mockito.when(planetService.listing(null, null, false)).thenReturn(new PlanetListing(1, Collections.emptyList()));
 
     mockMvc
         .perform(
@@ -140,19 +438,169 @@ public class PlanetControllerTest {
         .andExpect(MockMvcResultMatchers.jsonPath("$", Matchers.hasSize(0)));
   }
 
+  @Test
+  public void listPlanets_WithLimit_ReturnsPageAndNextCursor() throws Exception {
+    Mockito.when(planetService.listing(null, null, false, null, 2)).thenReturn(new PlanetListing(1, List.of(PlanetConstants.TATOOINE, PlanetConstants.ALDERAAN)));
+    Mockito.when(planetService.listing(null, null, false, PlanetConstants.ALDERAAN.getId(), 2)).thenReturn(new PlanetListing(1, List.of(PlanetConstants.YAVINIV)));
+
+    String nextCursor = mockMvc
+        .perform(
+            MockMvcRequestBuilders.get("/planets?limit=2"))
+        .andExpect(MockMvcResultMatchers.status().isOk())
+        .andExpect(MockMvcResultMatchers.jsonPath("$", Matchers.hasSize(2)))
+        .andExpect(MockMvcResultMatchers.header().exists(PlanetController.NEXT_CURSOR_HEADER))
+        .andReturn().getResponse().getHeader(PlanetController.NEXT_CURSOR_HEADER);
+
+    mockMvc
+        .perform(
+            MockMvcRequestBuilders.get("/planets?limit=2&after=" + nextCursor))
+        .andExpect(MockMvcResultMatchers.status().isOk())
+        .andExpect(MockMvcResultMatchers.jsonPath("$", Matchers.hasSize(1)))
+        .andExpect(MockMvcResultMatchers.jsonPath("$[0]").value(PlanetConstants.YAVINIV))
+        .andExpect(MockMvcResultMatchers.header().doesNotExist(PlanetController.NEXT_CURSOR_HEADER));
+  }
+
+  @Test
+  public void listPlanets_WithInvalidPage_ReturnsBadRequest() throws Exception {
+    mockMvc.perform(MockMvcRequestBuilders.get("/planets?limit=0"))
+        .andExpect(MockMvcResultMatchers.status().isBadRequest());
+    mockMvc.perform(MockMvcRequestBuilders.get("/planets?limit=2&after=not-a-cursor"))
+        .andExpect(MockMvcResultMatchers.status().isBadRequest());
+  }
+
+  @Test
+  public void streamPlanets_ReturnsNdjson() throws Exception {
+    Mockito.doAnswer(invocation -> {
+      Consumer<Planet> consumer = invocation.getArgument(3);
+      PlanetConstants.PLANETS.forEach(consumer);
+      return null;
+    }).when(planetService).stream(ArgumentMatchers.isNull(), ArgumentMatchers.isNull(), ArgumentMatchers.eq(false),
+        ArgumentMatchers.any());
+
+    MvcResult result = mockMvc
+        .perform(
+            MockMvcRequestBuilders.get("/planets").accept(PlanetController.APPLICATION_NDJSON_VALUE))
+        .andExpect(MockMvcResultMatchers.request().asyncStarted())
+        .andReturn();
+
+    String expected = objectMapper.writeValueAsString(PlanetConstants.TATOOINE) + "\n"
+        + objectMapper.writeValueAsString(PlanetConstants.ALDERAAN) + "\n"
+        + objectMapper.writeValueAsString(PlanetConstants.YAVINIV) + "\n";
+    mockMvc.perform(MockMvcRequestBuilders.asyncDispatch(result))
+        .andExpect(MockMvcResultMatchers.status().isOk())
+        .andExpect(MockMvcResultMatchers.content().contentType(PlanetController.APPLICATION_NDJSON_VALUE))
+        .andExpect(MockMvcResultMatchers.content().string(expected));
+  }
+
+  @Test
+  public void exportPlanets_AsNdjson_ReturnsGzippedLines() throws Exception {
+    Mockito.doAnswer(invocation -> {
+      Consumer<Planet> consumer = invocation.getArgument(4);
+      List.of(PlanetConstants.ALDERAAN, PlanetConstants.YAVINIV).forEach(consumer);
+      return null;
+    }).when(planetService).stream(ArgumentMatchers.isNull(), ArgumentMatchers.isNull(), ArgumentMatchers.eq(false),
+        ArgumentMatchers.eq(PlanetConstants.TATOOINE.getId()), ArgumentMatchers.any());
+
+    MvcResult result = mockMvc
+        .perform(
+            MockMvcRequestBuilders.get("/planets/export?after=" + PlanetConstants.TATOOINE.getId()))
+        .andExpect(MockMvcResultMatchers.request().asyncStarted())
+        .andReturn();
+
+    byte[] body = mockMvc.perform(MockMvcRequestBuilders.asyncDispatch(result))
+        .andExpect(MockMvcResultMatchers.status().isOk())
+        .andExpect(MockMvcResultMatchers.content().contentType(PlanetController.APPLICATION_GZIP_VALUE))
+        .andExpect(MockMvcResultMatchers.header().string("Content-Disposition",
+            Matchers.containsString("planets.ndjson.gz")))
+        .andReturn().getResponse().getContentAsByteArray();
+    Assertions.assertThat(gunzip(body)).isEqualTo(objectMapper.writeValueAsString(PlanetConstants.ALDERAAN) + "\n"
+        + objectMapper.writeValueAsString(PlanetConstants.YAVINIV));
+  }
+
+  @Test
+  public void exportPlanets_AsCsv_ReturnsGzippedRowsWithHeader() throws Exception {
+    Mockito.doAnswer(invocation -> {
+      Consumer<Planet> consumer = invocation.getArgument(4);
+      List.of(PlanetConstants.TATOOINE, PlanetConstants.ALDERAAN).forEach(consumer);
+      return null;
+    }).when(planetService).stream(ArgumentMatchers.isNull(), ArgumentMatchers.eq("temperate"), ArgumentMatchers.eq(false),
+        ArgumentMatchers.isNull(), ArgumentMatchers.any());
+
+    MvcResult result = mockMvc
+        .perform(
+            MockMvcRequestBuilders.get("/planets/export?format=csv&climate=temperate"))
+        .andExpect(MockMvcResultMatchers.request().asyncStarted())
+        .andReturn();
+
+    byte[] body = mockMvc.perform(MockMvcRequestBuilders.asyncDispatch(result))
+        .andExpect(MockMvcResultMatchers.status().isOk())
+        .andReturn().getResponse().getContentAsByteArray();
+    Assertions.assertThat(gunzip(body).split("\n")).containsExactly("id,name,climate,terrain",
+        "1,Tatooine,arid,desert", "2,Alderaan,temperate,\"grasslands, mountains\"");
+  }
+
+  @Test
+  public void exportPlanets_WithUnknownFormat_ReturnsBadRequest() throws Exception {
+    mockMvc.perform(MockMvcRequestBuilders.get("/planets/export?format=xml"))
+        .andExpect(MockMvcResultMatchers.status().isBadRequest());
+  }
+
   @Test
   public void removePlanet_WithExistingId_ReturnsNoContent() throws Exception {
+    Mockito.when(planetService.remove(1L)).thenReturn(true);
+
     mockMvc.perform(MockMvcRequestBuilders.delete("/planets/1"))
         .andExpect(MockMvcResultMatchers.status().isNoContent());
   }
 
+  @Test
+  public void removePlanet_OverConcurrencyLimit_ReturnsServiceUnavailable() throws Exception {
+    Mockito.when(planetService.remove(1L))
+        .thenThrow(new ConcurrencyLimitExceededException("write", 10, Duration.ofSeconds(2)));
+
+    mockMvc.perform(MockMvcRequestBuilders.delete("/planets/1"))
+        .andExpect(MockMvcResultMatchers.status().isServiceUnavailable())
+        .andExpect(MockMvcResultMatchers.header().string(HttpHeaders.RETRY_AFTER, "2"));
+  }
+
   @Test
   public void removePlanet_WithUnexistingId_ReturnsNotFound() throws Exception {
     final Long planetId = 1L;
 
-    Mockito.doThrow(new EmptyResultDataAccessException(1)).when(planetService).remove(planetId);
+    Mockito.when(planetService.remove(planetId)).thenReturn(false);
 
     mockMvc.perform(MockMvcRequestBuilders.delete("/planets/" + planetId))
         .andExpect(MockMvcResultMatchers.status().isNotFound());
   }
+
+  @Test
+  public void removePlanets_ByIds_ReturnsDeletedCount() throws Exception {
+    Mockito.when(planetService.removeAll(List.of(1L, 2L, 3L))).thenReturn(2);
+
+    mockMvc.perform(MockMvcRequestBuilders.delete("/planets").param("ids", "1,2,3"))
+        .andExpect(MockMvcResultMatchers.status().isOk())
+        .andExpect(MockMvcResultMatchers.jsonPath("$.deleted").value(2));
+  }
+
+  @Test
+  public void removePlanets_ByFilter_ReturnsDeletedCount() throws Exception {
+    Mockito.when(planetService.removeAll("desert", null, false)).thenReturn(1);
+
+    mockMvc.perform(MockMvcRequestBuilders.delete("/planets").param("terrain", "desert"))
+        .andExpect(MockMvcResultMatchers.status().isOk())
+        .andExpect(MockMvcResultMatchers.jsonPath("$.deleted").value(1));
+  }
+
+  @Test
+  public void removePlanets_WithoutFilter_ReturnsBadRequest() throws Exception {
+    mockMvc.perform(MockMvcRequestBuilders.delete("/planets"))
+        .andExpect(MockMvcResultMatchers.status().isBadRequest());
+    Mockito.verifyNoInteractions(planetService);
+  }
+
+  private static String gunzip(byte[] body) throws IOException {
+    try (GZIPInputStream input = new GZIPInputStream(new ByteArrayInputStream(body))) {
+      return new String(input.readAllBytes(), StandardCharsets.UTF_8);
+    }
+  }
 }
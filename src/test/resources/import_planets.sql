@@ -1,3 +1,22 @@
-INSERT INTO planets (id, name, climate, terrain) VALUES (1, 'Tatooine', 'arid', 'desert');
-INSERT INTO planets (id, name, climate, terrain) VALUES (2, 'Alderaan', 'temperate', 'grasslands, mountains');
-INSERT INTO planets (id, name, climate, terrain) VALUES (3, 'Yavin IV', 'temperate, tropical', 'jungle, rainforests');
\ No newline at end of file
+INSERT INTO planets (id, name, climate, terrain, version) VALUES (1, 'Tatooine', 'arid', 'desert', 0);
+INSERT INTO planets (id, name, climate, terrain, version) VALUES (2, 'Alderaan', 'temperate', 'grasslands, mountains', 0);
+INSERT INTO planets (id, name, climate, terrain, version) VALUES (3, 'Yavin IV', 'temperate, tropical', 'jungle, rainforests', 0);
+INSERT INTO planet_tokens (id, planet_id, kind, token) VALUES (1, 1, 'TERRAIN', 'desert');
+INSERT INTO planet_tokens (id, planet_id, kind, token) VALUES (2, 1, 'CLIMATE', 'arid');
+INSERT INTO planet_tokens (id, planet_id, kind, token) VALUES (3, 2, 'TERRAIN', 'grasslands');
+INSERT INTO planet_tokens (id, planet_id, kind, token) VALUES (4, 2, 'TERRAIN', 'mountains');
+INSERT INTO planet_tokens (id, planet_id, kind, token) VALUES (5, 2, 'CLIMATE', 'temperate');
+INSERT INTO planet_tokens (id, planet_id, kind, token) VALUES (6, 3, 'TERRAIN', 'jungle');
+INSERT INTO planet_tokens (id, planet_id, kind, token) VALUES (7, 3, 'TERRAIN', 'rainforests');
+INSERT INTO planet_tokens (id, planet_id, kind, token) VALUES (8, 3, 'CLIMATE', 'temperate');
+INSERT INTO planet_tokens (id, planet_id, kind, token) VALUES (9, 3, 'CLIMATE', 'tropical');
+INSERT INTO planet_facets (kind, token, planet_count) VALUES ('TERRAIN', 'desert', 1);
+INSERT INTO planet_facets (kind, token, planet_count) VALUES ('TERRAIN', 'grasslands', 1);
+INSERT INTO planet_facets (kind, token, planet_count) VALUES ('TERRAIN', 'mountains', 1);
+INSERT INTO planet_facets (kind, token, planet_count) VALUES ('TERRAIN', 'jungle', 1);
+INSERT INTO planet_facets (kind, token, planet_count) VALUES ('TERRAIN', 'rainforests', 1);
+INSERT INTO planet_facets (kind, token, planet_count) VALUES ('CLIMATE', 'arid', 1);
+INSERT INTO planet_facets (kind, token, planet_count) VALUES ('CLIMATE', 'temperate', 2);
+INSERT INTO planet_facets (kind, token, planet_count) VALUES ('CLIMATE', 'tropical', 1);
+UPDATE planets_seq SET next_val = 101;
+UPDATE planet_tokens_seq SET next_val = 101;
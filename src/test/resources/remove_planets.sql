@@ -1 +1,4 @@
-TRUNCATE TABLE planets;
+DELETE FROM planet_changes;
+DELETE FROM planet_facets;
+DELETE FROM planet_tokens;
+DELETE FROM planets;